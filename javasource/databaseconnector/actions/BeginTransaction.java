@@ -0,0 +1,89 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action begins a transaction on the database: it takes one connection
+ * from the pool and keeps it for the current context, with autocommit switched
+ * off. All Database Connector actions in this context with the same JDBC URL and
+ * user name run on that connection, until the transaction is ended with
+ * CommitTransaction or RollbackTransaction. Their changes are committed or
+ * rolled back together, and no connection is taken from the pool per action.
+ * 
+ * Always end the transaction, also when the microflow fails: call
+ * RollbackTransaction in an error handler. A transaction that is not ended
+ * within 10 minutes is rolled back, also if its microflow is still running: the
+ * actions after that fail, and so does CommitTransaction. Set the JVM property
+ * databaseconnector.Transaction.TimeoutSeconds above the duration of your
+ * longest job.
+ * 
+ * ExecutePartitionedQuery and StartParameterizedQuery do not take part in the
+ * transaction, they read on connections of their own. While the transaction is
+ * open, ExecutePartitionedQuery reads from the primary instead of a read replica.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param userName The user name for logging into the database.
+ * 
+ * @param password The password for logging into the database.
+ */
+public class BeginTransaction extends CustomJavaAction<java.lang.Boolean>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String userName;
+	private final java.lang.String password;
+
+	public BeginTransaction(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _userName,
+		java.lang.String _password
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.userName = _userName;
+		this.password = _password;
+	}
+
+	@java.lang.Override
+	public java.lang.Boolean executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		connector.beginTransaction(this.jdbcUrl, this.userName, this.password);
+		return true;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "BeginTransaction";
+	}
+
+	// BEGIN EXTRA CODE
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("BeginTransaction"), getContext());
+	// END EXTRA CODE
+}
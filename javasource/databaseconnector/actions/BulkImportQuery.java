@@ -0,0 +1,155 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import java.util.concurrent.TimeUnit;
+import com.mendix.core.Core;
+import com.mendix.core.CoreException;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+import com.mendix.thirdparty.org.json.JSONObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.impl.JdbcConnector;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action provides a consistent environment for Mendix projects to
+ * import the result of a SELECT query from an external relational database into
+ * a persistable entity. The rows are read through the cursor and committed in
+ * batches of 'commitInterval' objects while the query is being read, so only
+ * one batch is held in memory and no single commit grows with the size of the
+ * result.
+ * 
+ * Every batch is committed in a transaction of its own, separate from the
+ * transaction of the calling microflow. If the import fails, the batches before
+ * the failing one stay committed, also when the microflow is rolled back.
+ * 
+ * The statistics are returned as a JSON object with the fields rows, batches,
+ * readTimeMillis (reading rows and creating objects), commitTimeMillis,
+ * totalTimeMillis and rowsPerSecond.
+ * 
+ * The JDBC drivers for the databases you want to connect to must be placed
+ * inside the userlib directory of your project.
+ * 
+ * Note: Proper security is required when manually composing the query text to
+ *       avoid SQL injection.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param userName The user name for logging into the database.
+ * 
+ * @param password The password for logging into the database.
+ * 
+ * @param sql The SELECT query to be performed.
+ * 
+ * @param resultObjectType A fully qualified name for the persistable entity the
+ *                         rows are stored as.
+ * 
+ * @param commitInterval The number of objects committed at a time. Empty means
+ *                       1000.
+ * 
+ * @return The import statistics as JSON.
+ */
+public class BulkImportQuery extends CustomJavaAction<java.lang.String>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String userName;
+	private final java.lang.String password;
+	private final java.lang.String sql;
+	private final java.lang.String resultObjectType;
+	private final java.lang.Long commitInterval;
+
+	public BulkImportQuery(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _userName,
+		java.lang.String _password,
+		java.lang.String _sql,
+		java.lang.String _resultObjectType,
+		java.lang.Long _commitInterval
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.userName = _userName;
+		this.password = _password;
+		this.sql = _sql;
+		this.resultObjectType = _resultObjectType;
+		this.commitInterval = _commitInterval;
+	}
+
+	@java.lang.Override
+	public java.lang.String executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		IMetaObject metaObject = Core.getMetaObject(this.resultObjectType);
+		if (metaObject == null || !metaObject.isPersistable())
+			throw new DatabaseConnectorException(String.format("Entity '%s' must be persistable.", this.resultObjectType));
+		int batchSize = this.commitInterval == null ? DEFAULT_COMMIT_INTERVAL : this.commitInterval.intValue();
+
+		long[] batches = new long[1];
+		long[] commitNanos = new long[1];
+		long start = System.nanoTime();
+		long rowCount = connector.executeQuery(this.jdbcUrl, this.userName, this.password, metaObject, this.sql,
+				this.getContext(), batchSize, batch -> {
+					long commitStart = System.nanoTime();
+					IContext batchContext = this.getContext().createClone();
+					batchContext.startTransaction();
+					try {
+						Core.commit(batchContext, batch);
+						batchContext.endTransaction();
+					} catch (CoreException | RuntimeException e) {
+						batchContext.rollbackTransaction();
+						throw new DatabaseConnectorException(String.format("Committing batch %d of rows failed: %s",
+								batches[0] + 1, e.getMessage()), e);
+					}
+					commitNanos[0] += System.nanoTime() - commitStart;
+					batches[0]++;
+				});
+		long totalNanos = System.nanoTime() - start;
+
+		long totalMillis = TimeUnit.NANOSECONDS.toMillis(totalNanos);
+		long commitMillis = TimeUnit.NANOSECONDS.toMillis(commitNanos[0]);
+		if (logNode.isDebugEnabled()) logNode.debug(String.format("Imported %d rows into %s in %d batches, %d ms",
+				rowCount, this.resultObjectType, batches[0], totalMillis));
+
+		return new JSONObject()
+				.put("rows", rowCount)
+				.put("batches", batches[0])
+				.put("readTimeMillis", totalMillis - commitMillis)
+				.put("commitTimeMillis", commitMillis)
+				.put("totalTimeMillis", totalMillis)
+				.put("rowsPerSecond", totalNanos == 0 ? 0 : rowCount * 1e9 / totalNanos)
+				.toString();
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "BulkImportQuery";
+	}
+
+	// BEGIN EXTRA CODE
+	private static final int DEFAULT_COMMIT_INTERVAL = 1000;
+
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("BulkImportQuery"), getContext());
+	// END EXTRA CODE
+}
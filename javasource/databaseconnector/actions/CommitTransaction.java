@@ -0,0 +1,70 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action commits the transaction begun with BeginTransaction for the
+ * same JDBC URL and user name in the current context, and returns its
+ * connection to the pool. If the commit fails, the transaction is rolled back.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param userName The user name for logging into the database.
+ */
+public class CommitTransaction extends CustomJavaAction<java.lang.Boolean>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String userName;
+
+	public CommitTransaction(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _userName
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.userName = _userName;
+	}
+
+	@java.lang.Override
+	public java.lang.Boolean executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		connector.commitTransaction(this.jdbcUrl, this.userName);
+		return true;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "CommitTransaction";
+	}
+
+	// BEGIN EXTRA CODE
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("CommitTransaction"), getContext());
+	// END EXTRA CODE
+}
@@ -0,0 +1,121 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.ConnectionManagerSingleton;
+import databaseconnector.impl.PoolSettings;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action sets the size and timeouts of the connection pool for a JDBC
+ * URL. Call it from the after startup microflow, before the first query on that
+ * URL; calling it later applies the settings to the running pool.
+ * 
+ * Empty parameters fall back to the JVM properties
+ * databaseconnector.Pool.MaximumPoolSize, MinimumIdle, ConnectionTimeout,
+ * IdleTimeout, MaxLifetime and LeakDetectionThreshold (in milliseconds) and
+ * ServerPreparedStatements, and otherwise to the HikariCP defaults.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param maximumPoolSize The maximum number of connections in the pool.
+ * 
+ * @param minimumIdle The number of idle connections the pool keeps open.
+ * 
+ * @param connectionTimeout Milliseconds to wait for a connection before failing.
+ * 
+ * @param idleTimeout Milliseconds after which an idle connection is closed.
+ * 
+ * @param maxLifetime Maximum lifetime of a connection in milliseconds.
+ * 
+ * @param leakDetectionThreshold Milliseconds a connection may be in use before
+ *                               a possible leak is logged, 0 to disable.
+ * 
+ * @param serverPreparedStatements Whether MySQL and MariaDB prepare statements
+ *                                 on the server, off by default. Only applies
+ *                                 to pools that are created after this call.
+ */
+public class ConfigureConnectionPool extends CustomJavaAction<java.lang.Boolean>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.Long maximumPoolSize;
+	private final java.lang.Long minimumIdle;
+	private final java.lang.Long connectionTimeout;
+	private final java.lang.Long idleTimeout;
+	private final java.lang.Long maxLifetime;
+	private final java.lang.Long leakDetectionThreshold;
+	private final java.lang.Boolean serverPreparedStatements;
+
+	public ConfigureConnectionPool(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.Long _maximumPoolSize,
+		java.lang.Long _minimumIdle,
+		java.lang.Long _connectionTimeout,
+		java.lang.Long _idleTimeout,
+		java.lang.Long _maxLifetime,
+		java.lang.Long _leakDetectionThreshold,
+		java.lang.Boolean _serverPreparedStatements
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.maximumPoolSize = _maximumPoolSize;
+		this.minimumIdle = _minimumIdle;
+		this.connectionTimeout = _connectionTimeout;
+		this.idleTimeout = _idleTimeout;
+		this.maxLifetime = _maxLifetime;
+		this.leakDetectionThreshold = _leakDetectionThreshold;
+		this.serverPreparedStatements = _serverPreparedStatements;
+	}
+
+	@java.lang.Override
+	public java.lang.Boolean executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		PoolSettings defaults = PoolSettings.fromSystemProperties();
+		PoolSettings settings = new PoolSettings(
+				orDefault(this.maximumPoolSize, defaults.getMaximumPoolSize()),
+				orDefault(this.minimumIdle, defaults.getMinimumIdle()),
+				orDefault(this.connectionTimeout, defaults.getConnectionTimeoutMillis()),
+				orDefault(this.idleTimeout, defaults.getIdleTimeoutMillis()),
+				orDefault(this.maxLifetime, defaults.getMaxLifetimeMillis()),
+				orDefault(this.leakDetectionThreshold, defaults.getLeakDetectionThresholdMillis()),
+				this.serverPreparedStatements == null ? defaults.isServerPreparedStatements()
+						: this.serverPreparedStatements.booleanValue());
+		ConnectionManagerSingleton.getInstance().setPoolSettings(this.jdbcUrl, settings);
+		return true;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "ConfigureConnectionPool";
+	}
+
+	// BEGIN EXTRA CODE
+	private static int orDefault(java.lang.Long value, int defaultValue) {
+		return value == null ? defaultValue : value.intValue();
+	}
+
+	private static long orDefault(java.lang.Long value, long defaultValue) {
+		return value == null ? defaultValue : value.longValue();
+	}
+	// END EXTRA CODE
+}
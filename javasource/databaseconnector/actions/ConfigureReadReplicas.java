@@ -0,0 +1,107 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.ConnectionManagerSingleton;
+import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.impl.ReadReplicas;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action sets the read replicas of a primary database. Queries on the
+ * JDBC URL of the primary (ExecuteQuery, ExecuteParameterizedQuery and the other
+ * query actions) are then spread over the replicas, while statements and
+ * callable statements keep going to the primary, as do queries inside a
+ * transaction begun with BeginTransaction. Call it from the after startup
+ * microflow.
+ * 
+ * The replicas are connected to with the user name and password of the action
+ * that runs the query. Their pools can be sized with ConfigureConnectionPool on
+ * the JDBC URL of each replica.
+ * 
+ * A replica that cannot be connected to is taken out of rotation, and is put
+ * back when a health check succeeds again. The health check runs every 30
+ * seconds, which can be changed with the JVM property
+ * databaseconnector.ReadReplicas.HealthCheckIntervalSeconds. When no replica is
+ * available, queries go to the primary.
+ * 
+ * Note: replicas may lag behind the primary, so a query right after a statement
+ * may not see its changes. Run such queries in a transaction.
+ * 
+ * @param jdbcUrl The JDBC URL of the primary database, as used by the other actions.
+ * 
+ * @param replicaJdbcUrls The JDBC URLs of the read replicas, one per line, or
+ *                        empty to remove the replicas. Commas and semicolons
+ *                        are not separators, as they are part of multi-host
+ *                        and SQL Server JDBC URLs.
+ * 
+ * @param routing RoundRobin to send every query to the next replica in turn, or
+ *                LeastActive to send it to the replica with the fewest
+ *                connections in use. Empty for RoundRobin.
+ */
+public class ConfigureReadReplicas extends CustomJavaAction<java.lang.Boolean>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String replicaJdbcUrls;
+	private final java.lang.String routing;
+
+	public ConfigureReadReplicas(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _replicaJdbcUrls,
+		java.lang.String _routing
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.replicaJdbcUrls = _replicaJdbcUrls;
+		this.routing = _routing;
+	}
+
+	@java.lang.Override
+	public java.lang.Boolean executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		ReadReplicas replicas = this.replicaJdbcUrls == null || this.replicaJdbcUrls.trim().isEmpty() ? null
+				: new ReadReplicas(parseJdbcUrls(this.replicaJdbcUrls), ReadReplicas.Routing.parse(this.routing));
+		ConnectionManagerSingleton.getInstance().setReadReplicas(this.jdbcUrl, replicas);
+		return true;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "ConfigureReadReplicas";
+	}
+
+	// BEGIN EXTRA CODE
+	private static List<String> parseJdbcUrls(java.lang.String value) throws DatabaseConnectorException {
+		List<String> jdbcUrls = new ArrayList<>();
+		for (String line : value.trim().split("\\s*[\\r\\n]+\\s*")) {
+			if (!line.startsWith("jdbc:"))
+				throw new DatabaseConnectorException(String.format(
+						"Read replica '%s' is not a JDBC URL, put every JDBC URL on a line of its own.", line));
+			jdbcUrls.add(line);
+		}
+		return jdbcUrls;
+	}
+	// END EXTRA CODE
+}
@@ -0,0 +1,120 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import java.util.List;
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action provides a consistent environment for Mendix projects to
+ * perform one SQL statement for every object in a list on external relational
+ * databases, using JDBC batching. All rows are written on one connection in one
+ * transaction; if one batch fails, nothing is written.
+ * 
+ * Attribute names between braces in the statement text are replaced by the
+ * attribute values of each object, e.g.
+ * 'INSERT INTO customer (name, age) VALUES ({Name}, {Age})'. The values are
+ * passed as statement parameters, not as text. Binary attributes are not
+ * supported.
+ * 
+ * Do not use this Java action for SELECT queries. This action returns the
+ * number of affected rows.
+ * 
+ * The JDBC drivers for the databases you want to connect to must be placed
+ * inside the userlib directory of your project.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param userName The user name for logging into the database.
+ * 
+ * @param password The password for logging into the database.
+ * 
+ * @param sql The SQL statement to be performed for every object, with attribute
+ *            placeholders.
+ * 
+ * @param objects The objects providing the statement parameters, one row per
+ *                object.
+ * 
+ * @param batchSize The number of rows sent to the database per round trip.
+ * 
+ * @return Number of affected rows.
+ */
+public class ExecuteBatchStatement extends CustomJavaAction<java.lang.Long>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String userName;
+	private final java.lang.String password;
+	private final java.lang.String sql;
+	private final java.util.List<IMendixObject> objects;
+	private final java.lang.Long batchSize;
+
+	public ExecuteBatchStatement(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _userName,
+		java.lang.String _password,
+		java.lang.String _sql,
+		java.util.List<IMendixObject> _objects,
+		java.lang.Long _batchSize
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.userName = _userName;
+		this.password = _password;
+		this.sql = _sql;
+		this.objects = _objects;
+		this.batchSize = _batchSize;
+	}
+
+	@java.lang.Override
+	public java.lang.Long executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		int size = this.batchSize == null ? DEFAULT_BATCH_SIZE : this.batchSize.intValue();
+		List<Long> updateCounts = connector.executeBatch(this.jdbcUrl, this.userName, this.password, this.sql,
+				this.objects, size, this.getContext());
+
+		long total = 0;
+		for (Long updateCount : updateCounts) {
+			total += updateCount;
+		}
+		if (logNode.isDebugEnabled()) logNode.debug(String.format("Executed %d batches, %d affected rows", updateCounts.size(), total));
+
+		return total;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "ExecuteBatchStatement";
+	}
+
+	// BEGIN EXTRA CODE
+	private static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteBatchStatement"), getContext());
+	// END EXTRA CODE
+}
@@ -93,6 +93,6 @@ public class ExecuteCallableStatement extends CustomJavaAction<java.lang.Void>
 	// BEGIN EXTRA CODE
 	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
 
-	private final JdbcConnector connector = new JdbcConnector(logNode);
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteCallableStatement"), getContext());
 	// END EXTRA CODE
 }
@@ -0,0 +1,137 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+import databaseconnector.impl.callablestatement.OutputMapping;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action calls a statement like ExecuteCallableStatement, but maps the
+ * values of one array, struct or RefCursor output parameter directly onto
+ * objects of the result object type, instead of onto ParameterObject and
+ * Parameter objects in the Statement NPE. The other output parameters are still
+ * set on the Statement NPE.
+ * 
+ * Every struct, array element and cursor row becomes one result object. Values
+ * are mapped by position onto the attributes listed in attributeMapping. If
+ * attributeMapping is empty, cursor columns are mapped by name onto the
+ * attributes with the same name, as in ExecuteQuery.
+ * 
+ * The JDBC drivers for the databases you want to connect to must be placed
+ * inside the userlib directory of your project.
+ * 
+ * Note: Proper security is required when manually composing the statement text to
+ *       avoid SQL injection.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param userName The user name for logging into the database.
+ * 
+ * @param password The password for logging into the database.
+ * 
+ * @param statement An instance of the Statement NPE containing both the content of the
+ *                  statement to be called as well as all of its parameters.
+ * 
+ * @param resultObjectType A fully qualified name for the result object type, for
+ *                         example: MyModule.MyEntity.
+ * 
+ * @param attributeMapping A comma separated list of attribute names of the result
+ *                         object type, in the order of the output values, for
+ *                         example: Id,Name,Amount.
+ * 
+ * @param outputParameter The name or position of the output parameter to map.
+ *                        May be empty if the statement has only one array,
+ *                        object or cursor output parameter.
+ * 
+ * @return The output values as a list of mendix objects.
+ */
+public class ExecuteCallableStatementMapped extends CustomJavaAction<java.util.List<IMendixObject>>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String userName;
+	private final java.lang.String password;
+	/** @deprecated use statement.getMendixObject() instead. */
+	@java.lang.Deprecated(forRemoval = true)
+	private final IMendixObject __statement;
+	private final databaseconnector.proxies.Statement statement;
+	private final java.lang.String resultObjectType;
+	private final java.lang.String attributeMapping;
+	private final java.lang.String outputParameter;
+
+	public ExecuteCallableStatementMapped(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _userName,
+		java.lang.String _password,
+		IMendixObject _statement,
+		java.lang.String _resultObjectType,
+		java.lang.String _attributeMapping,
+		java.lang.String _outputParameter
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.userName = _userName;
+		this.password = _password;
+		this.__statement = _statement;
+		this.statement = _statement == null ? null : databaseconnector.proxies.Statement.initialize(getContext(), _statement);
+		this.resultObjectType = _resultObjectType;
+		this.attributeMapping = _attributeMapping;
+		this.outputParameter = _outputParameter;
+	}
+
+	@java.lang.Override
+	public java.util.List<IMendixObject> executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		if (this.statement == null) {
+			throw new IllegalArgumentException("Execute callable statement was called with an empty value.");
+		}
+		IMetaObject metaObject = Core.getMetaObject(this.resultObjectType);
+		String[] attributeNames = this.attributeMapping == null || this.attributeMapping.trim().isEmpty() ? null
+				: this.attributeMapping.trim().split("\\s*,\\s*");
+		OutputMapping outputMapping = new OutputMapping(metaObject, attributeNames);
+
+		List<IMendixObject> resultList = new ArrayList<>();
+		connector.executeCallableStatement(this.jdbcUrl, this.userName, this.password, this.statement, outputMapping,
+				this.outputParameter, 0, (output, objects) -> resultList.addAll(objects));
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("Result list count: %d", resultList.size()));
+
+		return resultList;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "ExecuteCallableStatementMapped";
+	}
+
+	// BEGIN EXTRA CODE
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteCallableStatementMapped"), getContext());
+	// END EXTRA CODE
+}
@@ -0,0 +1,132 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import java.util.Map;
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IDataType;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.impl.JdbcConnector;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action calls a statement like ExecuteCallableStatement, but does not
+ * load the rows of RefCursor output parameters into the Statement NPE. Instead,
+ * the rows are passed to a microflow in pages, so that stored procedures
+ * returning millions of rows can be processed without holding them all in
+ * memory.
+ * 
+ * The page microflow must have one parameter: a list of
+ * DatabaseConnector.ParameterObject. Every ParameterObject is one row, with its
+ * columns as associated Parameter objects.
+ * 
+ * The JDBC drivers for the databases you want to connect to must be placed
+ * inside the userlib directory of your project.
+ * 
+ * Note: Proper security is required when manually composing the statement text to
+ *       avoid SQL injection.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param userName The user name for logging into the database.
+ * 
+ * @param password The password for logging into the database.
+ * 
+ * @param statement An instance of the Statement NPE containing both the content of the
+ *                  statement to be called as well as all of its parameters.
+ * 
+ * @param pageSize The number of rows passed to the page microflow per call.
+ * 
+ * @param pageMicroflow The microflow that is called for every page of rows.
+ */
+public class ExecuteCallableStatementPaged extends CustomJavaAction<java.lang.Void>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String userName;
+	private final java.lang.String password;
+	/** @deprecated use statement.getMendixObject() instead. */
+	@java.lang.Deprecated(forRemoval = true)
+	private final IMendixObject __statement;
+	private final databaseconnector.proxies.Statement statement;
+	private final java.lang.Long pageSize;
+	private final java.lang.String pageMicroflow;
+
+	public ExecuteCallableStatementPaged(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _userName,
+		java.lang.String _password,
+		IMendixObject _statement,
+		java.lang.Long _pageSize,
+		java.lang.String _pageMicroflow
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.userName = _userName;
+		this.password = _password;
+		this.__statement = _statement;
+		this.statement = _statement == null ? null : databaseconnector.proxies.Statement.initialize(getContext(), _statement);
+		this.pageSize = _pageSize;
+		this.pageMicroflow = _pageMicroflow;
+	}
+
+	@java.lang.Override
+	public java.lang.Void executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		if (this.statement == null) {
+			throw new IllegalArgumentException("Execute callable statement was called with an empty value.");
+		}
+		String pageParameter = getPageParameterName(this.pageMicroflow);
+		int size = this.pageSize == null ? DEFAULT_PAGE_SIZE : this.pageSize.intValue();
+
+		connector.executeCallableStatement(this.jdbcUrl, this.userName, this.password, this.statement, size,
+				(cursor, page) -> {
+					if (logNode.isTraceEnabled()) logNode.trace(String.format("Passing %d rows of cursor %s to %s", page.size(), cursor, this.pageMicroflow));
+					Core.microflowCall(this.pageMicroflow).withParam(pageParameter, page).execute(this.getContext());
+				});
+		return null;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "ExecuteCallableStatementPaged";
+	}
+
+	// BEGIN EXTRA CODE
+	private static final int DEFAULT_PAGE_SIZE = 1000;
+
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteCallableStatementPaged"), getContext());
+
+	private static String getPageParameterName(String microflow) throws DatabaseConnectorException {
+		Map<String, IDataType> parameters = Core.getInputParameters(microflow);
+		if (parameters == null || parameters.size() != 1 || !parameters.values().iterator().next().isList()) {
+			throw new DatabaseConnectorException(String.format(
+					"Microflow '%s' must have exactly one parameter, a list of DatabaseConnector.ParameterObject.", microflow));
+		}
+		return parameters.keySet().iterator().next();
+	}
+	// END EXTRA CODE
+}
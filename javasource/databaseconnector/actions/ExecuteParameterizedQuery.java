@@ -99,6 +99,6 @@ public class ExecuteParameterizedQuery extends CustomJavaAction<java.util.List<I
 	// BEGIN EXTRA CODE
 	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
 
-	private final JdbcConnector connector = new JdbcConnector(logNode);
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteParameterizedQuery"), getContext());
 	// END EXTRA CODE
 }
@@ -88,6 +88,6 @@ public class ExecuteParameterizedStatement extends CustomJavaAction<java.lang.Lo
 	// BEGIN EXTRA CODE
 	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
 
-	private final JdbcConnector connector = new JdbcConnector(logNode);
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteParameterizedStatement"), getContext());
 	// END EXTRA CODE
 }
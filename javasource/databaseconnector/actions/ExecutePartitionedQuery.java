@@ -0,0 +1,137 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.core.Core;
+import com.mendix.core.CoreException;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.impl.JdbcConnector;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action provides a consistent environment for Mendix projects to
+ * extract large tables from external relational databases. The SELECT query is
+ * split on the range of a numeric or date column into partitions, which are read
+ * concurrently on separate connections. The rows are stored as objects of a
+ * persistable entity, which are committed in batches while the partitions are
+ * being read.
+ * 
+ * The connection pool of the database must allow at least 'parallelism'
+ * connections (see ConfigureConnectionPool). The order of the rows is not
+ * preserved.
+ * 
+ * The query is read from a read replica, if any are configured, unless a
+ * transaction (see BeginTransaction) is open on the database; then it is read
+ * from the primary. The partitions use connections of their own, so they do not
+ * see changes the transaction has not committed yet.
+ * 
+ * The JDBC drivers for the databases you want to connect to must be placed
+ * inside the userlib directory of your project.
+ * 
+ * Note: Proper security is required when manually composing the query text to
+ *       avoid SQL injection.
+ * 
+ * @param jdbcUrl A database JDBC URL address that points to your database.
+ * 
+ * @param userName The user name for logging into the database.
+ * 
+ * @param password The password for logging into the database.
+ * 
+ * @param sql The SELECT query to be performed.
+ * 
+ * @param resultObjectType A fully qualified name for the persistable entity the
+ *                         rows are stored as.
+ * 
+ * @param partitionColumn A numeric or date column of the query result to split
+ *                        the query on.
+ * 
+ * @param parallelism The number of partitions, and of connections used at the
+ *                    same time.
+ * 
+ * @return Number of rows read.
+ */
+public class ExecutePartitionedQuery extends CustomJavaAction<java.lang.Long>
+{
+	private final java.lang.String jdbcUrl;
+	private final java.lang.String userName;
+	private final java.lang.String password;
+	private final java.lang.String sql;
+	private final java.lang.String resultObjectType;
+	private final java.lang.String partitionColumn;
+	private final java.lang.Long parallelism;
+
+	public ExecutePartitionedQuery(
+		IContext context,
+		java.lang.String _jdbcUrl,
+		java.lang.String _userName,
+		java.lang.String _password,
+		java.lang.String _sql,
+		java.lang.String _resultObjectType,
+		java.lang.String _partitionColumn,
+		java.lang.Long _parallelism
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+		this.userName = _userName;
+		this.password = _password;
+		this.sql = _sql;
+		this.resultObjectType = _resultObjectType;
+		this.partitionColumn = _partitionColumn;
+		this.parallelism = _parallelism;
+	}
+
+	@java.lang.Override
+	public java.lang.Long executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		IMetaObject metaObject = Core.getMetaObject(this.resultObjectType);
+		if (metaObject == null || !metaObject.isPersistable())
+			throw new DatabaseConnectorException(String.format("Entity '%s' must be persistable.", this.resultObjectType));
+
+		long rowCount = connector.executePartitionedQuery(this.jdbcUrl, this.userName, this.password, metaObject,
+				this.sql, this.partitionColumn, this.parallelism.intValue(), this.getContext(), COMMIT_BATCH_SIZE,
+				batch -> {
+					try {
+						Core.commit(this.getContext(), batch);
+					} catch (CoreException e) {
+						throw new DatabaseConnectorException("Committing a batch of rows failed: " + e.getMessage(), e);
+					}
+				});
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("Result row count: %d", rowCount));
+
+		return rowCount;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "ExecutePartitionedQuery";
+	}
+
+	// BEGIN EXTRA CODE
+	private static final int COMMIT_BATCH_SIZE = 1000;
+
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecutePartitionedQuery"), getContext());
+	// END EXTRA CODE
+}
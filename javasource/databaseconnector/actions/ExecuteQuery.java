@@ -98,6 +98,6 @@ public class ExecuteQuery extends CustomJavaAction<java.util.List<IMendixObject>
 	// BEGIN EXTRA CODE
 	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
 
-	private final JdbcConnector connector = new JdbcConnector(logNode);
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteQuery"), getContext());
 	// END EXTRA CODE
 }
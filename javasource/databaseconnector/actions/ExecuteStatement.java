@@ -93,6 +93,6 @@ public class ExecuteStatement extends CustomJavaAction<java.lang.Long>
 	// BEGIN EXTRA CODE
 	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
 
-	private final JdbcConnector connector = new JdbcConnector(logNode);
+	private final JdbcConnector connector = new JdbcConnector(logNode, JdbcConnector.getQueryTimeout("ExecuteStatement"), getContext());
 	// END EXTRA CODE
 }
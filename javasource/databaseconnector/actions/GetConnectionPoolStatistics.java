@@ -0,0 +1,86 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.thirdparty.org.json.JSONArray;
+import com.mendix.thirdparty.org.json.JSONObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.ConnectionManagerSingleton;
+import databaseconnector.impl.PoolMetricsTracker;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action returns the state of all connection pools as a JSON array.
+ * Every pool has the fields poolName, jdbcUrl, userName, active, idle, total,
+ * max, pending (threads waiting for a connection), connectionsCreated and
+ * connectionTimeouts, and the histograms acquireWait and usage. A histogram has
+ * count, averageMs, maxMs and buckets: the number of samples up to 1, 5, 10, 50,
+ * 100, 500, 1000 and 5000 ms, and above 5000 ms.
+ * 
+ * @return The connection pool statistics as JSON.
+ */
+public class GetConnectionPoolStatistics extends CustomJavaAction<java.lang.String>
+{
+	public GetConnectionPoolStatistics(IContext context)
+	{
+		super(context);
+	}
+
+	@java.lang.Override
+	public java.lang.String executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		JSONArray pools = new JSONArray();
+		for (PoolMetricsTracker metrics : ConnectionManagerSingleton.getInstance().getPoolMetrics()) {
+			pools.put(new JSONObject()
+					.put("poolName", metrics.getPoolName())
+					.put("jdbcUrl", metrics.getJdbcUrl())
+					.put("userName", metrics.getUserName())
+					.put("active", metrics.getActiveConnections())
+					.put("idle", metrics.getIdleConnections())
+					.put("total", metrics.getTotalConnections())
+					.put("max", metrics.getMaxConnections())
+					.put("pending", metrics.getPendingThreads())
+					.put("connectionsCreated", metrics.getConnectionsCreated())
+					.put("connectionTimeouts", metrics.getConnectionTimeouts())
+					.put("acquireWait", toJson(metrics.getAcquireWait()))
+					.put("usage", toJson(metrics.getUsage())));
+		}
+		return pools.toString();
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "GetConnectionPoolStatistics";
+	}
+
+	// BEGIN EXTRA CODE
+	private static JSONObject toJson(PoolMetricsTracker.Histogram histogram) {
+		JSONArray buckets = new JSONArray();
+		for (int i = 0; i <= PoolMetricsTracker.BUCKET_BOUNDS_MILLIS.length; i++) {
+			buckets.put(histogram.getBucketCount(i));
+		}
+		return new JSONObject()
+				.put("count", histogram.getCount())
+				.put("averageMs", histogram.getAverageMillis())
+				.put("maxMs", histogram.getMaxMillis())
+				.put("buckets", buckets);
+	}
+	// END EXTRA CODE
+}
@@ -0,0 +1,72 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.thirdparty.org.json.JSONObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+import databaseconnector.impl.QueryResultCache;
+import databaseconnector.impl.StatementTemplateCache;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action returns the statistics of the query result cache used by
+ * ExecuteCachedParameterizedQuery as a JSON object with the fields size, hits,
+ * misses, hitRate (0 to 1) and evictions (expired or least recently used
+ * results).
+ * 
+ * The field batchTemplates holds the size, hits and misses of the cache of
+ * parsed statements used by ExecuteBatchStatement.
+ * 
+ * @return The query cache statistics as JSON.
+ */
+public class GetQueryCacheStatistics extends CustomJavaAction<java.lang.String>
+{
+	public GetQueryCacheStatistics(IContext context)
+	{
+		super(context);
+	}
+
+	@java.lang.Override
+	public java.lang.String executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		QueryResultCache cache = JdbcConnector.getQueryResultCache();
+		StatementTemplateCache templates = JdbcConnector.getBatchStatementTemplateCache();
+		return new JSONObject()
+				.put("size", cache.size())
+				.put("hits", cache.getHits())
+				.put("misses", cache.getMisses())
+				.put("hitRate", cache.getHitRate())
+				.put("evictions", cache.getEvictions())
+				.put("batchTemplates", new JSONObject()
+						.put("size", templates.size())
+						.put("hits", templates.getHits())
+						.put("misses", templates.getMisses()))
+				.toString();
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "GetQueryCacheStatistics";
+	}
+
+	// BEGIN EXTRA CODE
+	// END EXTRA CODE
+}
@@ -0,0 +1,99 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.thirdparty.org.json.JSONArray;
+import com.mendix.thirdparty.org.json.JSONObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+import databaseconnector.impl.PoolMetricsTracker;
+import databaseconnector.impl.QueryMetrics;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action returns the execution statistics of queries and statements
+ * as a JSON array, with one element per SQL fingerprint: the SQL text with its
+ * literals replaced by ?. Every element has the fields fingerprint, executions,
+ * failures, timeouts, cancellations (of aborted requests, or by the
+ * database), rows (returned or affected) and binaryBytes, and the histograms
+ * acquire (waiting for a connection), execute, fetch (reading rows from the
+ * cursor, without creating the objects) and total. A histogram has count,
+ * averageMs, maxMs and buckets: the number of samples up to 1, 5, 10, 50, 100,
+ * 500, 1000 and 5000 ms, and above 5000 ms.
+ * 
+ * @param resetStatistics Whether to clear the statistics after they are read.
+ * 
+ * @return The query statistics as JSON.
+ */
+public class GetQueryStatistics extends CustomJavaAction<java.lang.String>
+{
+	private final java.lang.Boolean resetStatistics;
+
+	public GetQueryStatistics(
+		IContext context,
+		java.lang.Boolean _resetStatistics
+	)
+	{
+		super(context);
+		this.resetStatistics = _resetStatistics;
+	}
+
+	@java.lang.Override
+	public java.lang.String executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		QueryMetrics queryMetrics = JdbcConnector.getQueryMetrics();
+		JSONArray queries = new JSONArray();
+		for (QueryMetrics.QueryStats stats : queryMetrics.getStatistics()) {
+			queries.put(new JSONObject()
+					.put("fingerprint", stats.getFingerprint())
+					.put("executions", stats.getExecutions())
+					.put("failures", stats.getFailures())
+					.put("timeouts", stats.getTimeouts())
+					.put("cancellations", stats.getCancellations())
+					.put("rows", stats.getRows())
+					.put("binaryBytes", stats.getBinaryBytes())
+					.put("acquire", toJson(stats.getAcquire()))
+					.put("execute", toJson(stats.getExecute()))
+					.put("fetch", toJson(stats.getFetch()))
+					.put("total", toJson(stats.getTotal())));
+		}
+		if (Boolean.TRUE.equals(this.resetStatistics)) queryMetrics.reset();
+		return queries.toString();
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "GetQueryStatistics";
+	}
+
+	// BEGIN EXTRA CODE
+	private static JSONObject toJson(PoolMetricsTracker.Histogram histogram) {
+		JSONArray buckets = new JSONArray();
+		for (int i = 0; i <= PoolMetricsTracker.BUCKET_BOUNDS_MILLIS.length; i++) {
+			buckets.put(histogram.getBucketCount(i));
+		}
+		return new JSONObject()
+				.put("count", histogram.getCount())
+				.put("averageMs", histogram.getAverageMillis())
+				.put("maxMs", histogram.getMaxMillis())
+				.put("buckets", buckets);
+	}
+	// END EXTRA CODE
+}
@@ -0,0 +1,61 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action removes results cached by ExecuteCachedParameterizedQuery,
+ * e.g. after the data they were read from has changed.
+ * 
+ * @param jdbcUrl Removes the results of this database only. Leave empty to
+ *                remove all cached results.
+ * 
+ * @return Number of removed results.
+ */
+public class InvalidateQueryCache extends CustomJavaAction<java.lang.Long>
+{
+	private final java.lang.String jdbcUrl;
+
+	public InvalidateQueryCache(
+		IContext context,
+		java.lang.String _jdbcUrl
+	)
+	{
+		super(context);
+		this.jdbcUrl = _jdbcUrl;
+	}
+
+	@java.lang.Override
+	public java.lang.Long executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		return (long) JdbcConnector.getQueryResultCache().invalidate(this.jdbcUrl);
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "InvalidateQueryCache";
+	}
+
+	// BEGIN EXTRA CODE
+	// END EXTRA CODE
+}
@@ -0,0 +1,55 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.JdbcConnector;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action stops the background threads of the database connector,
+ * rolls back its open transactions, closes its connection pools and deletes
+ * its temporary files. Call it from the before shutdown microflow of the app,
+ * so nothing of the connector is left running when the app is redeployed.
+ * 
+ * The connector cannot be used after this action, until the app is restarted.
+ */
+public class Shutdown extends CustomJavaAction<java.lang.Boolean>
+{
+	public Shutdown(IContext context)
+	{
+		super(context);
+	}
+
+	@java.lang.Override
+	public java.lang.Boolean executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		JdbcConnector.shutdown();
+		return true;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "Shutdown";
+	}
+
+	// BEGIN EXTRA CODE
+	// END EXTRA CODE
+}
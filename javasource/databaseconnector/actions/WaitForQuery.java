@@ -0,0 +1,87 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package databaseconnector.actions;
+
+import java.util.List;
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+import com.mendix.webui.CustomJavaAction;
+import databaseconnector.impl.AsyncQueryExecutor;
+import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.impl.JdbcConnector;
+import databaseconnector.impl.QueryRows;
+
+/**
+ * For a more detailed documentation, please visit the website at
+ * https://docs.mendix.com/appstore/connectors/database-connector
+ * 
+ * This Java action waits for a query started with StartParameterizedQuery and
+ * returns its result. If the query failed, this action fails with the error of
+ * the query. A handle can only be waited for once.
+ * 
+ * @param queryHandle The handle returned by StartParameterizedQuery.
+ * 
+ * @param resultObjectType A fully qualified name for the result object type, the
+ *                         same as the one the query was started with.
+ * 
+ * @return Result of the query as a list of mendix objects.
+ */
+public class WaitForQuery extends CustomJavaAction<java.util.List<IMendixObject>>
+{
+	private final java.lang.String queryHandle;
+	private final java.lang.String resultObjectType;
+
+	public WaitForQuery(
+		IContext context,
+		java.lang.String _queryHandle,
+		java.lang.String _resultObjectType
+	)
+	{
+		super(context);
+		this.queryHandle = _queryHandle;
+		this.resultObjectType = _resultObjectType;
+	}
+
+	@java.lang.Override
+	public java.util.List<IMendixObject> executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+		QueryRows queryRows = AsyncQueryExecutor.getInstance().await(this.queryHandle);
+		if (!queryRows.getMetaObject().getName().equals(this.resultObjectType)) {
+			// The result is no longer registered, so its spooled binaries are deleted here
+			queryRows.discard();
+			throw new DatabaseConnectorException(String.format("Query %s was started for entity '%s', not '%s'.",
+					this.queryHandle, queryRows.getMetaObject().getName(), this.resultObjectType));
+		}
+		List<IMendixObject> resultList = connector.createMendixObjects(this.getContext(), queryRows);
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("Result list count: %d", resultList.size()));
+
+		return resultList;
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "WaitForQuery";
+	}
+
+	// BEGIN EXTRA CODE
+	private final ILogNode logNode = Core.getLogger(this.getClass().getName());
+
+	private final JdbcConnector connector = new JdbcConnector(logNode);
+	// END EXTRA CODE
+}
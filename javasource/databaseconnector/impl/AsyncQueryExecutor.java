@@ -0,0 +1,118 @@
+package databaseconnector.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+
+/**
+ * Runs queries in the background for the asynchronous API of
+ * {@link JdbcConnector}. On Java 21 and later every query runs on its own virtual
+ * thread, which does not hold on to an OS thread while it waits for the
+ * database; on older runtimes a fixed pool of platform threads is used, sized
+ * with the JVM property databaseconnector.Async.PoolSize.
+ * <p>
+ * Started queries can be registered under a handle, so a microflow can start
+ * several queries and wait for them later on. A result that is not waited for
+ * is dropped some time after it is complete, set with the JVM property
+ * databaseconnector.Async.ResultTimeToLiveSeconds.
+ */
+public class AsyncQueryExecutor {
+	private static final String PROPERTY_PREFIX = "databaseconnector.Async.";
+
+	private final ExecutorService executor;
+	private final long resultTimeToLiveSeconds;
+	private final Map<String, CompletableFuture<QueryRows>> pendingQueries = new ConcurrentHashMap<>();
+	private final ILogNode logNode;
+
+	private static final class Holder {
+		private static final AsyncQueryExecutor instance = new AsyncQueryExecutor(
+				Core.getLogger(AsyncQueryExecutor.class.getName()),
+				Integer.getInteger(PROPERTY_PREFIX + "PoolSize", 32),
+				Long.getLong(PROPERTY_PREFIX + "ResultTimeToLiveSeconds", 300));
+	}
+
+	public AsyncQueryExecutor(final ILogNode logNode, final int poolSize, final long resultTimeToLiveSeconds) {
+		this.logNode = logNode;
+		this.executor = createExecutor(poolSize);
+		this.resultTimeToLiveSeconds = resultTimeToLiveSeconds;
+	}
+
+	public static AsyncQueryExecutor getInstance() {
+		return Holder.instance;
+	}
+
+	// Looked up by reflection, so the module still compiles and runs on runtimes before Java 21
+	private ExecutorService createExecutor(final int poolSize) {
+		try {
+			final ExecutorService virtualThreadExecutor = (ExecutorService) Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			if (logNode.isDebugEnabled()) logNode.debug("Running asynchronous queries on virtual threads");
+			return virtualThreadExecutor;
+		} catch (ReflectiveOperationException e) {
+			if (logNode.isDebugEnabled()) logNode.debug(String.format(
+					"Virtual threads are not available, running asynchronous queries on %d threads", poolSize));
+			final AtomicInteger threadNumber = new AtomicInteger();
+			return Executors.newFixedThreadPool(poolSize, runnable -> {
+				final Thread thread = new Thread(runnable, "MxDbConnector-async-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return a handle to wait for the query with {@link #await(String)}
+	 */
+	public String register(final CompletableFuture<QueryRows> query) {
+		final String handle = UUID.randomUUID().toString();
+		pendingQueries.put(handle, query);
+		query.whenComplete((rows, error) -> CompletableFuture.runAsync(() -> {
+			if (!pendingQueries.remove(handle, query)) return;
+			if (rows != null) rows.discard();
+			if (logNode.isDebugEnabled())
+				logNode.debug(String.format("Dropped the result of query %s, it was not waited for", handle));
+		}, CompletableFuture.delayedExecutor(resultTimeToLiveSeconds, TimeUnit.SECONDS)));
+		return handle;
+	}
+
+	/**
+	 * Stops the queries that are still running and drops the results that were not
+	 * waited for.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		for (String handle : pendingQueries.keySet()) {
+			final CompletableFuture<QueryRows> query = pendingQueries.remove(handle);
+			if (query != null && !query.cancel(true) && !query.isCompletedExceptionally()) query.join().discard();
+		}
+	}
+
+	/**
+	 * Waits for the query with the given handle, which can only be done once.
+	 */
+	public QueryRows await(final String handle) throws DatabaseConnectorException, InterruptedException {
+		final CompletableFuture<QueryRows> query = handle == null ? null : pendingQueries.remove(handle);
+		if (query == null)
+			throw new DatabaseConnectorException(String.format(
+					"No query with handle '%s'. It was already waited for, or its result has expired.", handle));
+		try {
+			return query.get();
+		} catch (ExecutionException e) {
+			final Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+			throw new DatabaseConnectorException(String.format("Query %s failed: %s", handle, cause.getMessage()), cause);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package databaseconnector.impl;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive;
+import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive.PrimitiveType;
+
+/**
+ * BatchStatementTemplate is a SQL statement in which attribute names between
+ * braces, e.g. {Name}, are placeholders for the attribute values of the objects
+ * in a batch. The placeholders are resolved once, against the entity of the
+ * objects, into a plain JDBC statement with '?' markers and a list of
+ * attributes to bind for every row.
+ */
+public class BatchStatementTemplate {
+	private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z_][A-Za-z0-9_]*)\\}");
+
+	private final String sql;
+	private final List<IMetaPrimitive> parameters;
+
+	private BatchStatementTemplate(final String sql, final List<IMetaPrimitive> parameters) {
+		this.sql = sql;
+		this.parameters = parameters;
+	}
+
+	public static BatchStatementTemplate parse(final String template, final IMetaObject metaObject)
+			throws DatabaseConnectorException {
+		final List<IMetaPrimitive> parameters = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder(template.length());
+		final Matcher matcher = PLACEHOLDER.matcher(template);
+		while (matcher.find()) {
+			final String attributeName = matcher.group(1);
+			final IMetaPrimitive metaPrimitive = metaObject.getMetaPrimitive(attributeName);
+			if (metaPrimitive == null)
+				throw new DatabaseConnectorException(String.format(
+						"Placeholder '{%s}' does not match an attribute of the entity '%s'.", attributeName, metaObject.getName()));
+			if (metaPrimitive.getType() == PrimitiveType.Binary)
+				throw new DatabaseConnectorException(String.format(
+						"Attribute type Binary for attribute '%s' on entity '%s' is not supported in batch statements.",
+						attributeName, metaObject.getName()));
+			parameters.add(metaPrimitive);
+			matcher.appendReplacement(sql, "?");
+		}
+		matcher.appendTail(sql);
+		return new BatchStatementTemplate(sql.toString(), parameters);
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Binds the attribute values of one object to the placeholders of the statement.
+	 */
+	public void bind(final PreparedStatement preparedStatement, final IContext context, final IMendixObject obj)
+			throws SQLException {
+		for (int i = 0; i < parameters.size(); i++) {
+			final IMetaPrimitive parameter = parameters.get(i);
+			final Object value = obj.getValue(context, parameter.getName());
+			bindValue(preparedStatement, i + 1, parameter.getType(), value);
+		}
+	}
+
+	private static void bindValue(final PreparedStatement preparedStatement, final int index,
+			final PrimitiveType type, final Object value) throws SQLException {
+		switch (type) {
+		case Integer:
+			if (value == null) preparedStatement.setNull(index, Types.INTEGER);
+			else preparedStatement.setInt(index, (Integer) value);
+			break;
+		case AutoNumber:
+		case Long:
+			if (value == null) preparedStatement.setNull(index, Types.BIGINT);
+			else preparedStatement.setLong(index, (Long) value);
+			break;
+		case Boolean:
+			if (value == null) preparedStatement.setNull(index, Types.BOOLEAN);
+			else preparedStatement.setBoolean(index, (Boolean) value);
+			break;
+		case Decimal:
+			if (value == null) preparedStatement.setNull(index, Types.DECIMAL);
+			else preparedStatement.setBigDecimal(index, (BigDecimal) value);
+			break;
+		case DateTime:
+			if (value == null) preparedStatement.setNull(index, Types.TIMESTAMP);
+			else preparedStatement.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+			break;
+		case Enum:
+		case HashString:
+		case String:
+			if (value == null) preparedStatement.setNull(index, Types.VARCHAR);
+			else preparedStatement.setString(index, value.toString());
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid parameter type: " + type);
+		}
+	}
+}
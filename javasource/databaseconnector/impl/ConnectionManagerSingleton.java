@@ -2,13 +2,17 @@ package databaseconnector.impl;
 
 import databaseconnector.interfaces.ConnectionManager;
 
+/**
+ * Holds the connection manager shared by all actions. The instance is created
+ * when the holder class is initialized on first use, which the JVM does exactly
+ * once, so getInstance() needs no lock.
+ */
 public final class ConnectionManagerSingleton {
-	private static ConnectionManager connectionManager;
-
-	public static synchronized ConnectionManager getInstance() {
-		if (connectionManager == null)
-			connectionManager = new JdbcConnectionManager();
+	private static final class Holder {
+		private static final ConnectionManager connectionManager = new JdbcConnectionManager();
+	}
 
-		return connectionManager;
+	public static ConnectionManager getInstance() {
+		return Holder.connectionManager;
 	}
 }
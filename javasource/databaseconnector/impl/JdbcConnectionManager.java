@@ -4,36 +4,82 @@ import com.mendix.core.Core;
 import com.mendix.logging.ILogNode;
 
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import databaseconnector.interfaces.ConnectionManager;
 
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
- * Simple connection manager backed by HikariCP. It does not support shutdown at
- * this moment that may lead to memory leak in case of hot deployment.
+ * Simple connection manager backed by HikariCP. Pools are sized with
+ * {@link PoolSettings}, report to a {@link PoolMetricsTracker}, and are closed
+ * by {@link #shutdown()}, which the Shutdown action calls from the before
+ * shutdown microflow.
+ * <p>
+ * There is one pool per {@link PoolKey} (JDBC URL and user name). When the
+ * password for a key changes, a new pool replaces the old one once it has
+ * handed out a connection, and the old pool is drained in the background; a
+ * wrong password leaves the old pool in place.
+ * <p>
+ * A JDBC URL can have {@link ReadReplicas}; queries then get their connections
+ * from the pools of the replicas. Every replica is checked at the interval set
+ * with the JVM property databaseconnector.ReadReplicas.HealthCheckIntervalSeconds,
+ * and is taken out of or put back into rotation accordingly.
  * <p>
  * TODO: REMOVE TECHNICAL DEBT - extract connection manager into shared
- * component, so that : 1. the same connection manager may be used by actions,
- * data storage layer (ConnectionBus), etc 2. all connections may be properly
- * closed during application shutdown
+ * component, so that the same connection manager may be used by actions,
+ * data storage layer (ConnectionBus), etc.
  */
 public class JdbcConnectionManager implements ConnectionManager {
-	private final Map<Integer, HikariDataSource> connectionPool = new ConcurrentHashMap<>();
+	private static final long DRAIN_CHECK_INTERVAL_MILLIS = 1000;
+	private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 5;
+
+	private final Map<PoolKey, Pool> connectionPool = new ConcurrentHashMap<>();
+	private final Map<PoolKey, Object> poolCreationLocks = new ConcurrentHashMap<>();
+	private final Set<HikariDataSource> drainingPools = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger poolSequence = new AtomicInteger();
+	private final ScheduledExecutorService drainExecutor;
+	private final ScheduledExecutorService healthCheckExecutor;
+	private final long healthCheckIntervalSeconds;
+	private final Map<String, ReadReplicas> readReplicas = new ConcurrentHashMap<>();
+	private final Map<String, ReplicaLogin> failedReplicaLogins = new ConcurrentHashMap<>();
+	private boolean healthCheckStarted;
+	private final Map<String, PoolSettings> poolSettings = new ConcurrentHashMap<>();
+	private final Map<String, PoolMetricsTracker> poolMetrics = new ConcurrentHashMap<>();
 	private final ILogNode logNode;
-	private boolean hasDriversInitialized;
+	private volatile boolean hasDriversInitialized;
 
 	public JdbcConnectionManager(final ILogNode logNode) {
 		this.logNode = logNode;
+		this.drainExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "MxDbConnector-pool-drain");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "MxDbConnector-replica-health");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.healthCheckIntervalSeconds = Long.getLong("databaseconnector.ReadReplicas.HealthCheckIntervalSeconds", 30);
 	}
 
 	public JdbcConnectionManager() {
@@ -45,19 +91,237 @@ public class JdbcConnectionManager implements ConnectionManager {
 			throws SQLException {
 		initializeDrivers();
 
-		final Integer connPoolKey = toConnPoolKey(jdbcUrl, userName);
-		final HikariDataSource dataSource = connectionPool.computeIfAbsent(connPoolKey, k -> {
+		final PoolKey poolKey = new PoolKey(jdbcUrl, userName);
+		final Pool pool = connectionPool.get(poolKey);
+		if (pool != null && pool.hasPassword(password)) {
 			if (logNode.isTraceEnabled()) {
-				logNode.trace(String.format("Creating data source in connection pool for [url=%s, user=%s]", jdbcUrl, userName));
+				logNode.trace(String.format("Getting connection from data source in connection pool for [url=%s, user=%s]",
+					jdbcUrl, userName));
 			}
-			return createHikariDataSource(jdbcUrl, userName, password, connPoolKey);
-		});
+			return pool.dataSource.getConnection();
+		}
+		synchronized (poolCreationLocks.computeIfAbsent(poolKey, k -> new Object())) {
+			final Pool current = connectionPool.get(poolKey);
+			if (current != null && current.hasPassword(password)) return current.dataSource.getConnection();
+			return replacePool(poolKey, current, jdbcUrl, userName, password);
+		}
+	}
 
+	/**
+	 * Creates a pool with new credentials, and only puts it in place of the current
+	 * one once it has handed out a connection. A pool with wrong credentials is
+	 * closed again, so it cannot replace a pool that works.
+	 */
+	private Connection replacePool(final PoolKey poolKey, final Pool current, final String jdbcUrl,
+			final String userName, final String password) throws SQLException {
 		if (logNode.isTraceEnabled()) {
-			logNode.trace(String.format("Getting connection from data source in connection pool for [url=%s, user=%s]",
-				jdbcUrl, userName));
+			logNode.trace(String.format("Creating data source in connection pool for %s", poolKey));
+		}
+		final Pool candidate = new Pool(createHikariDataSource(jdbcUrl, userName, password));
+		final Connection connection;
+		try {
+			connection = candidate.dataSource.getConnection();
+		} catch (SQLException | RuntimeException e) {
+			candidate.dataSource.close();
+			throw e;
+		}
+		connectionPool.put(poolKey, candidate);
+		if (current != null) {
+			if (logNode.isDebugEnabled()) logNode.debug(String.format("Credentials changed for %s, replacing pool %s",
+					poolKey, current.dataSource.getPoolName()));
+			startDrain(current.dataSource);
+		}
+		return connection;
+	}
+
+	/**
+	 * Tries the replicas in rotation in the order of their routing; a replica that
+	 * cannot be connected to is taken out of rotation and the next one is tried.
+	 */
+	@Override
+	public Connection getReadConnection(final String jdbcUrl, final String userName, final String password)
+			throws SQLException {
+		final ReadReplicas replicas = readReplicas.get(jdbcUrl);
+		if (replicas != null) {
+			for (String replicaUrl : replicas.candidates(url -> getBusyConnections(url, userName))) {
+				final Connection connection = tryReplica(replicas, replicaUrl, userName, password);
+				if (connection != null) return connection;
+			}
+			if (logNode.isDebugEnabled()) logNode.debug(String.format("No read replica of %s is available", jdbcUrl));
+		}
+		return getConnection(jdbcUrl, userName, password);
+	}
+
+	@Override
+	public String pinReadReplica(final String jdbcUrl, final String userName, final String password)
+			throws SQLException {
+		final ReadReplicas replicas = readReplicas.get(jdbcUrl);
+		if (replicas != null) {
+			for (String replicaUrl : replicas.candidates(url -> getBusyConnections(url, userName))) {
+				final Connection connection = tryReplica(replicas, replicaUrl, userName, password);
+				if (connection != null) {
+					connection.close();
+					return replicaUrl;
+				}
+			}
+			if (logNode.isDebugEnabled()) logNode.debug(String.format("No read replica of %s is available", jdbcUrl));
+		}
+		return jdbcUrl;
+	}
+
+	// Takes a replica that cannot be connected to out of rotation
+	private Connection tryReplica(final ReadReplicas replicas, final String replicaUrl, final String userName,
+			final String password) {
+		try {
+			return getConnection(replicaUrl, userName, password);
+		} catch (SQLException e) {
+			if (replicas.markFailed(replicaUrl))
+				logNode.warn(String.format("Taking read replica %s out of rotation: %s", replicaUrl, e.getMessage()));
+			failedReplicaLogins.put(replicaUrl, new ReplicaLogin(userName, password));
+			return null;
+		}
+	}
+
+	@Override
+	public void setReadReplicas(final String jdbcUrl, final ReadReplicas replicas) {
+		if (replicas == null || replicas.getJdbcUrls().isEmpty()) {
+			readReplicas.remove(jdbcUrl);
+			return;
+		}
+		readReplicas.put(jdbcUrl, replicas);
+		if (logNode.isDebugEnabled()) logNode.debug(String.format("Read replicas of %s: %s, routing %s", jdbcUrl,
+				replicas.getJdbcUrls(), replicas.getRouting()));
+		startHealthCheck();
+	}
+
+	private synchronized void startHealthCheck() {
+		if (healthCheckStarted) return;
+		try {
+			healthCheckExecutor.scheduleWithFixedDelay(this::checkReadReplicas, healthCheckIntervalSeconds,
+					healthCheckIntervalSeconds, TimeUnit.SECONDS);
+			healthCheckStarted = true;
+		} catch (RejectedExecutionException e) {
+			// Shutting down
+		}
+	}
+
+	private void checkReadReplicas() {
+		for (ReadReplicas replicas : readReplicas.values()) {
+			for (String replicaUrl : replicas.getJdbcUrls()) {
+				if (isHealthy(replicaUrl)) {
+					failedReplicaLogins.remove(replicaUrl);
+					if (replicas.markHealthy(replicaUrl)) logNode.info(String.format("Read replica %s is back in rotation", replicaUrl));
+				} else if (replicas.markFailed(replicaUrl)) {
+					logNode.warn(String.format("Taking read replica %s out of rotation, its health check failed", replicaUrl));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks a replica with its pools. A replica whose first connection failed has
+	 * no pool, as the pool is closed again, so it is checked by connecting with the
+	 * login of that failed attempt; this creates its pool once it is reachable. The
+	 * replica stays out of rotation until that succeeds, and as the attempt runs on
+	 * the health check thread, no query waits for it. A replica with neither was
+	 * never used, nor found failing.
+	 */
+	private boolean isHealthy(final String jdbcUrl) {
+		boolean hasPool = false;
+		for (Map.Entry<PoolKey, Pool> entry : connectionPool.entrySet()) {
+			if (!jdbcUrl.equals(entry.getKey().getJdbcUrl())) continue;
+			hasPool = true;
+			try (Connection connection = entry.getValue().dataSource.getConnection()) {
+				if (connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS)) return true;
+			} catch (SQLException e) {
+				if (logNode.isDebugEnabled()) logNode.debug(String.format("Health check of %s failed: %s", entry.getKey(), e.getMessage()));
+			}
+		}
+		final ReplicaLogin login = failedReplicaLogins.get(jdbcUrl);
+		if (hasPool || login == null) return !hasPool;
+		try (Connection connection = getConnection(jdbcUrl, login.userName, login.password)) {
+			return connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS);
+		} catch (SQLException e) {
+			if (logNode.isDebugEnabled()) logNode.debug(String.format("Health check of %s failed: %s", jdbcUrl, e.getMessage()));
+			return false;
+		}
+	}
+
+	private int getBusyConnections(final String jdbcUrl, final String userName) {
+		final Pool pool = connectionPool.get(new PoolKey(jdbcUrl, userName));
+		final HikariPoolMXBean poolMXBean = pool == null ? null : pool.dataSource.getHikariPoolMXBean();
+		return poolMXBean == null ? 0 : poolMXBean.getActiveConnections() + poolMXBean.getThreadsAwaitingConnection();
+	}
+
+	@Override
+	public void setPoolSettings(final String jdbcUrl, final PoolSettings settings) {
+		poolSettings.put(jdbcUrl, settings);
+		for (Pool pool : connectionPool.values()) {
+			final HikariDataSource dataSource = pool.dataSource;
+			if (jdbcUrl.equals(dataSource.getJdbcUrl())) {
+				settings.applyTo(dataSource.getHikariConfigMXBean());
+				if (logNode.isDebugEnabled()) logNode.debug("Updated settings of pool " + dataSource.getPoolName());
+			}
+		}
+	}
+
+	@Override
+	public Collection<PoolMetricsTracker> getPoolMetrics() {
+		return Collections.unmodifiableCollection(poolMetrics.values());
+	}
+
+	/**
+	 * Closes all pools. Connections that are in use are closed when they are
+	 * returned.
+	 */
+	@Override
+	public void shutdown() {
+		drainExecutor.shutdownNow();
+		healthCheckExecutor.shutdownNow();
+		for (Pool pool : connectionPool.values()) {
+			if (logNode.isDebugEnabled()) logNode.debug("Closing pool " + pool.dataSource.getPoolName());
+			pool.dataSource.close();
+		}
+		connectionPool.clear();
+		for (HikariDataSource dataSource : drainingPools) {
+			dataSource.close();
+		}
+		drainingPools.clear();
+	}
+
+	/**
+	 * Retires a pool whose credentials are outdated: idle connections are closed
+	 * right away, and the pool itself once the connections that are in use have
+	 * been returned, or when the maximum lifetime of its connections has passed.
+	 * All of it runs on the drain thread, as closing a pool blocks.
+	 */
+	private void startDrain(final HikariDataSource dataSource) {
+		drainingPools.add(dataSource);
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dataSource.getMaxLifetime());
+		try {
+			drainExecutor.execute(() -> {
+				final HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+				if (poolMXBean != null) poolMXBean.softEvictConnections();
+				drain(dataSource, deadline);
+			});
+		} catch (RejectedExecutionException e) {
+			// Shutting down, the pool is closed by shutdown()
+		}
+	}
+
+	private void drain(final HikariDataSource dataSource, final long deadline) {
+		final HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+		if (poolMXBean == null || poolMXBean.getActiveConnections() == 0 || System.nanoTime() - deadline >= 0) {
+			if (logNode.isDebugEnabled()) logNode.debug("Closing drained pool " + dataSource.getPoolName());
+			drainingPools.remove(dataSource);
+			dataSource.close();
+			return;
+		}
+		try {
+			drainExecutor.schedule(() -> drain(dataSource, deadline), DRAIN_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// Shutting down, the pool is closed by shutdown()
 		}
-		return dataSource.getConnection();
 	}
 
 	/**
@@ -65,8 +329,17 @@ public class JdbcConnectionManager implements ConnectionManager {
 	 * correctly registered to the DriverManager. The cause is maybe the fact that
 	 * the drivers are put into the project.jar on deployment. Hence, we explicitly
 	 * register the drivers.
+	 * <p>
+	 * This runs once; after that, the volatile flag is the only thing checked on
+	 * the path of every connection request.
 	 */
-	private synchronized void initializeDrivers() {
+	private void initializeDrivers() {
+		if (!hasDriversInitialized) {
+			registerDrivers();
+		}
+	}
+
+	private synchronized void registerDrivers() {
 		if (!hasDriversInitialized) {
 			ServiceLoader<Driver> loader = ServiceLoader.load(Driver.class);
 			List<Driver> drivers = StreamSupport.stream(loader.spliterator(), false).collect(Collectors.toList());
@@ -89,19 +362,96 @@ public class JdbcConnectionManager implements ConnectionManager {
 		}
 	}
 
-	private Integer toConnPoolKey(final String jdbcUrl, final String userName) {
-		return (jdbcUrl + userName).hashCode();
-	}
-
-	private HikariDataSource createHikariDataSource(final String jdbcUrl, final String userName, final String password,
-			Integer connPoolKey) {
+	private HikariDataSource createHikariDataSource(final String jdbcUrl, final String userName, final String password) {
 		final HikariDataSource dataSource = new HikariDataSource();
-		dataSource.setPoolName(String.format("MxDbConnector-HikaryCP-%d", connPoolKey));
+		dataSource.setPoolName(String.format("MxDbConnector-HikaryCP-%d", poolSequence.incrementAndGet()));
 		dataSource.setJdbcUrl(jdbcUrl);
 		dataSource.setUsername(userName);
 		dataSource.setPassword(password);
-		dataSource.setMinimumIdle(0);
+		final PoolSettings settings = poolSettings.getOrDefault(jdbcUrl, PoolSettings.fromSystemProperties());
+		settings.applyTo(dataSource);
+		dataSource.setMetricsTrackerFactory((poolName, poolStats) -> {
+			PoolMetricsTracker tracker = new PoolMetricsTracker(poolName, jdbcUrl, userName, poolStats) {
+				@Override
+				public void close() {
+					poolMetrics.remove(poolName, this);
+				}
+			};
+			poolMetrics.put(poolName, tracker);
+			return tracker;
+		});
+		addStatementCacheProperties(dataSource, jdbcUrl, settings);
 
 		return dataSource;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Turns on the driver side prepared statement cache for the drivers that have
+	 * one, so statements that are prepared over and over on a pooled connection are
+	 * only parsed and planned once by the database. Properties that are already set
+	 * in the JDBC URL are left alone.
+	 * <p>
+	 * MySQL and MariaDB only cache the statements they prepare in the driver, unless
+	 * the pool settings turn on server side prepared statements: those cost an
+	 * extra round trip for every statement that is not in the cache, and hold
+	 * memory on the server for every cached statement.
+	 */
+	private void addStatementCacheProperties(final HikariDataSource dataSource, final String jdbcUrl,
+			final PoolSettings settings) {
+		final Map<String, String> properties = new LinkedHashMap<>();
+		if (jdbcUrl.startsWith("jdbc:mysql:") || jdbcUrl.startsWith("jdbc:mariadb:")) {
+			properties.put("cachePrepStmts", "true");
+			properties.put("prepStmtCacheSize", "250");
+			properties.put("prepStmtCacheSqlLimit", "2048");
+			if (settings.isServerPreparedStatements()) properties.put("useServerPrepStmts", "true");
+		} else if (jdbcUrl.startsWith("jdbc:postgresql:")) {
+			properties.put("prepareThreshold", "3");
+			properties.put("preparedStatementCacheQueries", "256");
+		} else if (jdbcUrl.startsWith("jdbc:oracle:")) {
+			properties.put("oracle.jdbc.implicitStatementCacheSize", "100");
+		} else if (jdbcUrl.startsWith("jdbc:sqlserver:")) {
+			properties.put("disableStatementPooling", "false");
+			properties.put("statementPoolingCacheSize", "100");
+		}
+
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			if (!jdbcUrl.contains(property.getKey() + "=")) {
+				dataSource.addDataSourceProperty(property.getKey(), property.getValue());
+			}
+		}
+		if (logNode.isDebugEnabled() && !properties.isEmpty()) {
+			logNode.debug(String.format("Statement cache properties for pool %s: %s", dataSource.getPoolName(),
+					dataSource.getDataSourceProperties()));
+		}
+	}
+
+	private static final class ReplicaLogin {
+		private final String userName;
+		private final String password;
+
+		private ReplicaLogin(final String userName, final String password) {
+			this.userName = userName;
+			this.password = password;
+		}
+	}
+
+	private static final class Pool {
+		private final HikariDataSource dataSource;
+
+		private Pool(final HikariDataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		// Compares with the password the pool was created with, in time that does not depend on where they differ
+		private boolean hasPassword(final String password) {
+			final String poolPassword = dataSource.getPassword();
+			if (poolPassword == null || password == null) return poolPassword == password;
+			if (poolPassword.isEmpty()) return password.isEmpty();
+			int difference = poolPassword.length() ^ password.length();
+			for (int i = 0; i < password.length(); i++) {
+				difference |= poolPassword.charAt(i % poolPassword.length()) ^ password.charAt(i);
+			}
+			return difference == 0;
+		}
+	}
+}
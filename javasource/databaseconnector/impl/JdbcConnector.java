@@ -4,28 +4,33 @@ import com.mendix.logging.ILogNode;
 import com.mendix.systemwideinterfaces.core.IContext;
 import com.mendix.systemwideinterfaces.core.IMendixObject;
 import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
-import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive;
-import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive.PrimitiveType;
 import com.mendix.systemwideinterfaces.javaactions.parameters.IStringTemplate;
 
+import databaseconnector.impl.callablestatement.OutputMapping;
 import databaseconnector.impl.callablestatement.StatementWrapper;
 import databaseconnector.interfaces.CallableStatementCreator;
 import databaseconnector.interfaces.ConnectionManager;
+import databaseconnector.interfaces.ObjectBatchConsumer;
 import databaseconnector.interfaces.ObjectInstantiator;
 import databaseconnector.interfaces.PreparedStatementCreator;
+import databaseconnector.interfaces.RefCursorPageConsumer;
 import databaseconnector.proxies.Statement;
 
-import java.io.ByteArrayInputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
-import java.util.function.Supplier;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 /**
@@ -33,20 +38,87 @@ import java.util.stream.Stream;
  * functionality, and returns a {@link Stream} of {@link IMendixObject}s.
  */
 public class JdbcConnector {
+	/**
+	 * JVM property with the fetch size used for queries that do not specify one.
+	 * Set it to 0 to leave the driver default, or the one in the JDBC URL (e.g.
+	 * defaultRowFetchSize for PostgreSQL, defaultRowPrefetch for Oracle), in place.
+	 */
+	public static final String FETCH_SIZE_PROPERTY = "databaseconnector.FetchSize";
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+	/**
+	 * JVM property with the query timeout in seconds of all actions, 0 (the
+	 * default) for no timeout. The timeout of a single action can be set with this
+	 * property followed by the name of the action, e.g.
+	 * databaseconnector.QueryTimeoutSeconds.ExecuteQuery.
+	 */
+	public static final String QUERY_TIMEOUT_PROPERTY = "databaseconnector.QueryTimeoutSeconds";
+
+	private static final QueryResultCache queryResultCache = QueryResultCache.fromSystemProperties();
+	private static final StatementTemplateCache batchStatementTemplates = new StatementTemplateCache(
+			StatementTemplateCache.DEFAULT_SIZE);
+	private static final QueryMetrics queryMetrics = QueryMetrics.fromSystemProperties();
+	private static final StatementCanceller statementCanceller = new StatementCanceller();
+	private static final TransactionScopes transactionScopes = TransactionScopes.getInstance();
+
 	private final ILogNode logNode;
 	private final ObjectInstantiator objectInstantiator;
 	private final ConnectionManager connectionManager;
 	private final PreparedStatementCreator preparedStatementCreator;
 	private final CallableStatementCreator callableStatementCreator;
+	private final int defaultFetchSize;
+	private final int queryTimeoutSeconds;
+	private final IContext transactionContext;
 
 	public JdbcConnector(final ILogNode logNode, final ObjectInstantiator objectInstantiator,
 			final ConnectionManager connectionManager, final PreparedStatementCreator preparedStatementCreator,
-			final CallableStatementCreator callableStatementCreator) {
+			final CallableStatementCreator callableStatementCreator, final int queryTimeoutSeconds) {
+		this(logNode, objectInstantiator, connectionManager, preparedStatementCreator, callableStatementCreator,
+				queryTimeoutSeconds, null);
+	}
+
+	/**
+	 * @param transactionContext the context whose transactions, begun with
+	 *                           {@link #beginTransaction}, this connector takes
+	 *                           part in, or null to take part in none
+	 */
+	public JdbcConnector(final ILogNode logNode, final ObjectInstantiator objectInstantiator,
+			final ConnectionManager connectionManager, final PreparedStatementCreator preparedStatementCreator,
+			final CallableStatementCreator callableStatementCreator, final int queryTimeoutSeconds,
+			final IContext transactionContext) {
 		this.logNode = logNode;
 		this.objectInstantiator = objectInstantiator;
 		this.connectionManager = connectionManager;
 		this.preparedStatementCreator = preparedStatementCreator;
 		this.callableStatementCreator = callableStatementCreator;
+		this.defaultFetchSize = getDefaultFetchSize();
+		this.queryTimeoutSeconds = queryTimeoutSeconds;
+		this.transactionContext = transactionContext;
+	}
+
+	public JdbcConnector(final ILogNode logNode, final ObjectInstantiator objectInstantiator,
+			final ConnectionManager connectionManager, final PreparedStatementCreator preparedStatementCreator,
+			final CallableStatementCreator callableStatementCreator) {
+		this(logNode, objectInstantiator, connectionManager, preparedStatementCreator, callableStatementCreator,
+				Integer.getInteger(QUERY_TIMEOUT_PROPERTY, 0));
+	}
+
+	/**
+	 * @param queryTimeoutSeconds the timeout of every statement, 0 for none
+	 */
+	public JdbcConnector(final ILogNode logNode, final int queryTimeoutSeconds) {
+		this(logNode, new ObjectInstantiatorImpl(), ConnectionManagerSingleton.getInstance(),
+				new PreparedStatementCreatorImpl(), new CallableStatementCreatorImpl(), queryTimeoutSeconds);
+	}
+
+	/**
+	 * @param queryTimeoutSeconds the timeout of every statement, 0 for none
+	 * @param transactionContext  the context whose transactions this connector takes
+	 *                            part in
+	 */
+	public JdbcConnector(final ILogNode logNode, final int queryTimeoutSeconds, final IContext transactionContext) {
+		this(logNode, new ObjectInstantiatorImpl(), ConnectionManagerSingleton.getInstance(),
+				new PreparedStatementCreatorImpl(), new CallableStatementCreatorImpl(), queryTimeoutSeconds,
+				transactionContext);
 	}
 
 	public JdbcConnector(final ILogNode logNode) {
@@ -54,108 +126,756 @@ public class JdbcConnector {
 				new PreparedStatementCreatorImpl(), new CallableStatementCreatorImpl());
 	}
 
+	/**
+	 * @return the query timeout in seconds of the action with the given name, see
+	 *         {@link #QUERY_TIMEOUT_PROPERTY}
+	 */
+	public static int getQueryTimeout(final String actionName) {
+		return Integer.getInteger(QUERY_TIMEOUT_PROPERTY + "." + actionName, Integer.getInteger(QUERY_TIMEOUT_PROPERTY, 0));
+	}
+
 	public List<IMendixObject> executeQuery(final String jdbcUrl, final String userName, final String password,
 			final IMetaObject metaObject, final String sql, final IContext context) throws SQLException, DatabaseConnectorException {
+		return executeQuery(jdbcUrl, userName, password, metaObject, sql, context, defaultFetchSize);
+	}
+
+	public List<IMendixObject> executeQuery(final String jdbcUrl, final String userName, final String password,
+			final IMetaObject metaObject, final String sql, final IContext context, final int fetchSize)
+			throws SQLException, DatabaseConnectorException {
 		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeQuery: %s, %s, %s", jdbcUrl, userName, sql));
 
-		try (Connection connection = connectionManager.getConnection(jdbcUrl, userName, password);
-				PreparedStatement preparedStatement = preparedStatementCreator.create(sql, connection);
-				ResultSet resultSet = preparedStatement.executeQuery()) {
-			ResultSetReader resultSetReader = new ResultSetReader(resultSet, metaObject);
-			return createMendixObjects(context, metaObject, resultSetReader.readAll());
-		}
+		final QueryExecution execution = QueryExecution.of(sql);
+		return query(jdbcUrl, userName, password, fetchSize, execution,
+				connection -> preparedStatementCreator.createQuery(sql, connection, fetchSize),
+				resultSet -> createMendixObjects(context, metaObject, new ResultSetReader(resultSet, metaObject, execution)));
 	}
 
 	public List<IMendixObject> executeQuery(final String jdbcUrl, final String userName, final String password,
 			final IMetaObject metaObject, final IStringTemplate sql, final IContext context) throws SQLException, DatabaseConnectorException {
+		return executeQuery(jdbcUrl, userName, password, metaObject, sql, context, defaultFetchSize);
+	}
+
+	public List<IMendixObject> executeQuery(final String jdbcUrl, final String userName, final String password,
+			final IMetaObject metaObject, final IStringTemplate sql, final IContext context, final int fetchSize)
+			throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeQuery: %s, %s, %s", jdbcUrl, userName, sql));
+
+		final QueryExecution execution = QueryExecution.of(sql);
+		return query(jdbcUrl, userName, password, fetchSize, execution,
+				connection -> preparedStatementCreator.createQuery(sql, connection, fetchSize),
+				resultSet -> createMendixObjects(context, metaObject, new ResultSetReader(resultSet, metaObject, execution)));
+	}
+
+	/**
+	 * Cached variant of executeQuery for read-only queries: a result is kept for
+	 * timeToLiveMillis and reused for the same connection, query, parameter values
+	 * and entity. Every call still gets new objects.
+	 */
+	public List<IMendixObject> executeCachedQuery(final String jdbcUrl, final String userName, final String password,
+			final IMetaObject metaObject, final IStringTemplate sql, final IContext context, final long timeToLiveMillis)
+			throws SQLException, DatabaseConnectorException {
+		if (timeToLiveMillis <= 0 || transactionScopes.isActive(transactionContext, jdbcUrl, userName)) {
+			// Not cached, and uncommitted changes of a transaction must not end up in the cache
+			return executeQuery(jdbcUrl, userName, password, metaObject, sql, context);
+		}
+		final QueryResultCache.Key key = QueryResultCache.Key.of(jdbcUrl, userName, password, sql, metaObject);
+		QueryResultCache.CachedResult result = queryResultCache.get(key);
+		if (result == null) {
+			if (logNode.isTraceEnabled()) logNode.trace(String.format("executeCachedQuery (miss): %s, %s, %s", jdbcUrl, userName, sql));
+			final QueryExecution execution = QueryExecution.of(sql);
+			result = query(jdbcUrl, userName, password, defaultFetchSize, execution,
+					connection -> preparedStatementCreator.createQuery(sql, connection, defaultFetchSize),
+					resultSet -> {
+						ResultSetReader resultSetReader = new ResultSetReader(resultSet, metaObject, execution);
+						List<Object[]> rows = new ArrayList<>();
+						while (resultSetReader.next()) {
+							rows.add(resultSetReader.readValues());
+						}
+						return new QueryResultCache.CachedResult(resultSetReader.getAttributeNames(), rows, timeToLiveMillis);
+					});
+			queryResultCache.put(key, result);
+		} else if (logNode.isTraceEnabled()) {
+			logNode.trace(String.format("executeCachedQuery (hit): %s, %s, %s", jdbcUrl, userName, sql));
+		}
+
+		List<IMendixObject> convertedResult = new ArrayList<IMendixObject>(result.getRows().size());
+		for (Object[] values : result.getRows()) {
+			IMendixObject obj = objectInstantiator.instantiate(context, metaObject.getName());
+			ResultSetReader.setValues(context, obj, result.getAttributeNames(), values);
+			convertedResult.add(obj);
+		}
+		return convertedResult;
+	}
+
+	/**
+	 * Starts a query in the background, see {@link AsyncQueryExecutor}. The rows
+	 * are read on another thread, but Mendix objects are not created there, as a
+	 * context must not be used by two threads at once: the caller turns the rows
+	 * into objects with {@link #createMendixObjects(IContext, QueryRows)}.
+	 */
+	public CompletableFuture<QueryRows> executeQueryAsync(final String jdbcUrl, final String userName,
+			final String password, final IMetaObject metaObject, final String sql) {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeQueryAsync: %s, %s, %s", jdbcUrl, userName, sql));
+
+		final QueryExecution execution = QueryExecution.of(sql);
+		return readRowsAsync(jdbcUrl, userName, password, metaObject, execution,
+				connection -> preparedStatementCreator.createQuery(sql, connection, defaultFetchSize));
+	}
+
+	public CompletableFuture<QueryRows> executeQueryAsync(final String jdbcUrl, final String userName,
+			final String password, final IMetaObject metaObject, final IStringTemplate sql) {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeQueryAsync: %s, %s, %s", jdbcUrl, userName, sql));
+
+		final QueryExecution execution = QueryExecution.of(sql);
+		return readRowsAsync(jdbcUrl, userName, password, metaObject, execution,
+				connection -> preparedStatementCreator.createQuery(sql, connection, defaultFetchSize));
+	}
+
+	private CompletableFuture<QueryRows> readRowsAsync(final String jdbcUrl, final String userName,
+			final String password, final IMetaObject metaObject, final QueryExecution execution,
+			final StatementFactory statementFactory) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return query(jdbcUrl, userName, password, defaultFetchSize, execution, statementFactory, resultSet -> {
+					ResultSetReader resultSetReader = new ResultSetReader(resultSet, metaObject, execution);
+					List<Object[]> rows = new ArrayList<>();
+					while (resultSetReader.next()) {
+						rows.add(resultSetReader.readValues());
+					}
+					return new QueryRows(metaObject, resultSetReader.getAttributeNames(), rows);
+				});
+			} catch (SQLException | DatabaseConnectorException e) {
+				throw new CompletionException(e);
+			}
+		}, AsyncQueryExecutor.getInstance().getExecutor());
+	}
+
+	public List<IMendixObject> createMendixObjects(final IContext context, final QueryRows queryRows) {
+		List<IMendixObject> convertedResult = new ArrayList<IMendixObject>(queryRows.getRows().size());
+		for (Object[] values : queryRows.getRows()) {
+			IMendixObject obj = objectInstantiator.instantiate(context, queryRows.getMetaObject().getName());
+			ResultSetReader.setValues(context, obj, queryRows.getAttributeNames(), values);
+			convertedResult.add(obj);
+		}
+		return convertedResult;
+	}
+
+	/**
+	 * Stops the background threads of the connector, rolls back its transactions,
+	 * closes its pools and deletes its spooled binaries. The connector cannot be
+	 * used afterwards, until the runtime is restarted.
+	 */
+	public static void shutdown() {
+		AsyncQueryExecutor.getInstance().shutdown();
+		statementCanceller.shutdown();
+		transactionScopes.shutdown();
+		ConnectionManagerSingleton.getInstance().shutdown();
+		SpooledBinary.discardAll();
+	}
+
+	public static QueryResultCache getQueryResultCache() {
+		return queryResultCache;
+	}
+
+	public static QueryMetrics getQueryMetrics() {
+		return queryMetrics;
+	}
+
+	/**
+	 * Streaming variant of executeQuery: rows are converted to objects while the
+	 * cursor is read and handed to the consumer in batches of batchSize, so no more
+	 * than one batch is held in memory.
+	 *
+	 * @return the number of rows read
+	 */
+	public long executeQuery(final String jdbcUrl, final String userName, final String password,
+			final IMetaObject metaObject, final String sql, final IContext context, final int batchSize,
+			final ObjectBatchConsumer consumer) throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeQuery: %s, %s, %s", jdbcUrl, userName, sql));
+
+		final QueryExecution execution = QueryExecution.of(sql);
+		return query(jdbcUrl, userName, password, defaultFetchSize, execution,
+				connection -> preparedStatementCreator.createQuery(sql, connection, defaultFetchSize),
+				resultSet -> streamMendixObjects(context, metaObject, new ResultSetReader(resultSet, metaObject, execution), batchSize, consumer));
+	}
+
+	public long executeQuery(final String jdbcUrl, final String userName, final String password,
+			final IMetaObject metaObject, final IStringTemplate sql, final IContext context, final int batchSize,
+			final ObjectBatchConsumer consumer) throws SQLException, DatabaseConnectorException {
 		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeQuery: %s, %s, %s", jdbcUrl, userName, sql));
 
-		try (Connection connection = connectionManager.getConnection(jdbcUrl, userName, password);
-				PreparedStatement preparedStatement = preparedStatementCreator.create(sql, connection);
-				ResultSet resultSet = preparedStatement.executeQuery()) {
-			ResultSetReader resultSetReader = new ResultSetReader(resultSet, metaObject);
-			return createMendixObjects(context, metaObject, resultSetReader.readAll());
+		final QueryExecution execution = QueryExecution.of(sql);
+		return query(jdbcUrl, userName, password, defaultFetchSize, execution,
+				connection -> preparedStatementCreator.createQuery(sql, connection, defaultFetchSize),
+				resultSet -> streamMendixObjects(context, metaObject, new ResultSetReader(resultSet, metaObject, execution), batchSize, consumer));
+	}
+
+	/**
+	 * Reads a query in partitions of the range of partitionColumn, each partition
+	 * on its own pooled connection and at most parallelism partitions at a time.
+	 * The rows of all partitions are turned into objects on the calling thread, in
+	 * no particular order, and handed to the consumer in batches of batchSize. A
+	 * bounded queue between the readers and the calling thread keeps memory use
+	 * constant. The connection pool should allow at least parallelism connections.
+	 * If the JDBC URL has read replicas, one is picked for the whole query;
+	 * while a transaction of the context of this connector is open on the JDBC
+	 * URL, the primary is read instead, so the query sees the state the
+	 * transaction will commit. The partitions do not read on the connection of
+	 * the transaction, so its uncommitted changes are not seen.
+	 *
+	 * @return the number of rows read
+	 */
+	public long executePartitionedQuery(final String jdbcUrl, final String userName, final String password,
+			final IMetaObject metaObject, final String sql, final String partitionColumn, final int parallelism,
+			final IContext context, final int batchSize, final ObjectBatchConsumer consumer)
+			throws SQLException, DatabaseConnectorException, InterruptedException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executePartitionedQuery: %s, %s, %s, %s, %d",
+				jdbcUrl, userName, sql, partitionColumn, parallelism));
+		if (parallelism < 1)
+			throw new DatabaseConnectorException(String.format("Parallelism must be at least 1, but was %d.", parallelism));
+		if (batchSize < 1)
+			throw new DatabaseConnectorException(String.format("Batch size must be at least 1, but was %d.", batchSize));
+
+		// The bounds and all partitions are read from one replica, so they see the same state of the data
+		final String readJdbcUrl = transactionScopes.isActive(transactionContext, jdbcUrl, userName) ? jdbcUrl
+				: connectionManager.pinReadReplica(jdbcUrl, userName, password);
+		final QueryPartitioner partitioner = new QueryPartitioner(sql, partitionColumn);
+		final List<QueryPartitioner.Partition> partitions = query(readJdbcUrl, 0,
+				QueryExecution.of(partitioner.getBoundsQuery()), () -> getConnection(readJdbcUrl, userName, password),
+				connection -> preparedStatementCreator.createQuery(partitioner.getBoundsQuery(), connection, 0),
+				resultSet -> resultSet.next() ? partitioner.split(resultSet.getObject(1), resultSet.getObject(2), parallelism)
+						: partitioner.split(null, null, parallelism));
+		if (logNode.isDebugEnabled()) logNode.debug(String.format("Reading %d partitions: %s", partitions.size(), partitions));
+
+		final BlockingQueue<PartitionRows> queue = new ArrayBlockingQueue<>(parallelism * 2);
+		final AtomicInteger threadNumber = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, partitions.size()),
+				runnable -> new Thread(runnable, "MxDbConnector-partition-" + threadNumber.incrementAndGet()));
+		PartitionRows merging = null;
+		try {
+			for (QueryPartitioner.Partition partition : partitions) {
+				executor.execute(() -> readPartition(readJdbcUrl, userName, password, metaObject, partition, batchSize, queue));
+			}
+			executor.shutdown();
+
+			long rowCount = 0;
+			int finished = 0;
+			List<IMendixObject> batch = new ArrayList<IMendixObject>(batchSize);
+			while (finished < partitions.size()) {
+				final PartitionRows rows = queue.take();
+				merging = rows;
+				if (rows.error != null)
+					throw new DatabaseConnectorException(String.format("Reading partition %s failed: %s", rows.partition,
+							rows.error.getMessage()), rows.error);
+				if (rows.values == null) {
+					finished++;
+					continue;
+				}
+				for (Object[] values : rows.values) {
+					IMendixObject obj = objectInstantiator.instantiate(context, metaObject.getName());
+					rows.reader.setValues(context, obj, values);
+					batch.add(obj);
+					rowCount++;
+					if (batch.size() == batchSize) {
+						consumer.accept(batch);
+						batch = new ArrayList<IMendixObject>(batchSize);
+					}
+				}
+				merging = null;
+			}
+			if (!batch.isEmpty()) consumer.accept(batch);
+			if (logNode.isTraceEnabled()) logNode.trace(String.format("Read %d rows from %d partitions", rowCount, partitions.size()));
+			return rowCount;
+		} finally {
+			// Stops the readers that are still running if the merge failed, and drops what they read
+			executor.shutdownNow();
+			if (merging != null) merging.discard();
+			final List<PartitionRows> abandoned = new ArrayList<>();
+			queue.drainTo(abandoned);
+			for (PartitionRows rows : abandoned) {
+				rows.discard();
+			}
 		}
 	}
 
-	private Function<Object, Object> toSuitableValue(final PrimitiveType type) {
-		return v -> type == PrimitiveType.Binary ? new ByteArrayInputStream((byte[]) v) : v;
+	private void readPartition(final String jdbcUrl, final String userName, final String password,
+			final IMetaObject metaObject, final QueryPartitioner.Partition partition, final int transferSize,
+			final BlockingQueue<PartitionRows> queue) {
+		try {
+			final QueryExecution execution = QueryExecution.of(partition.getSql());
+			final ConnectionSource connectionSource = () -> connectionManager.getConnection(jdbcUrl, userName, password);
+			query(jdbcUrl, defaultFetchSize, execution, connectionSource, connection -> {
+				PreparedStatement preparedStatement = preparedStatementCreator.createQuery(partition.getSql(), connection,
+						defaultFetchSize);
+				try {
+					partition.bind(preparedStatement);
+				} catch (SQLException e) {
+					preparedStatement.close();
+					throw e;
+				}
+				return preparedStatement;
+			}, resultSet -> {
+				ResultSetReader resultSetReader = new ResultSetReader(resultSet, metaObject, execution);
+				List<Object[]> rows = new ArrayList<>(transferSize);
+				try {
+					while (resultSetReader.next()) {
+						rows.add(resultSetReader.readValues());
+						if (rows.size() == transferSize) {
+							final List<Object[]> full = rows;
+							rows = new ArrayList<>(transferSize);
+							transfer(queue, new PartitionRows(partition, resultSetReader, full, null));
+						}
+					}
+				} catch (SQLException | RuntimeException e) {
+					SpooledBinary.discardAll(rows);
+					throw e;
+				}
+				if (!rows.isEmpty()) transfer(queue, new PartitionRows(partition, resultSetReader, rows, null));
+				return null;
+			});
+			transfer(queue, new PartitionRows(partition, null, null, null));
+		} catch (SQLException | DatabaseConnectorException | RuntimeException e) {
+			if (Thread.currentThread().isInterrupted()) return;
+			try {
+				transfer(queue, new PartitionRows(partition, null, null, e));
+			} catch (DatabaseConnectorException interrupted) {
+				// The merge has stopped, nobody is waiting for this error
+			}
+		}
+	}
+
+	private static void transfer(final BlockingQueue<PartitionRows> queue, final PartitionRows rows)
+			throws DatabaseConnectorException {
+		try {
+			queue.put(rows);
+		} catch (InterruptedException e) {
+			rows.discard();
+			Thread.currentThread().interrupt();
+			throw new DatabaseConnectorException("Interrupted while reading partition " + rows.partition, e);
+		}
+	}
+
+	/**
+	 * Rows read by a partition reader, the end of a partition (no values), or the
+	 * error that stopped a partition reader.
+	 */
+	private static final class PartitionRows {
+		private final QueryPartitioner.Partition partition;
+		private final ResultSetReader reader;
+		private final List<Object[]> values;
+		private final Exception error;
+
+		private PartitionRows(final QueryPartitioner.Partition partition, final ResultSetReader reader,
+				final List<Object[]> values, final Exception error) {
+			this.partition = partition;
+			this.reader = reader;
+			this.values = values;
+			this.error = error;
+		}
+
+		private void discard() {
+			if (values != null) SpooledBinary.discardAll(values);
+		}
+	}
+
+	/**
+	 * Runs a query on a pooled connection. PostgreSQL only honours the fetch size
+	 * inside a transaction (otherwise it buffers the complete result), so for a
+	 * positive fetch size autocommit is switched off for the duration of the query
+	 * and restored before the connection goes back to the pool.
+	 * <p>
+	 * The time spent in every phase is measured into execution, which is added to
+	 * the {@link QueryMetrics} when the query is done. The statement gets the query
+	 * timeout of this connector, and is cancelled by the {@link StatementCanceller}
+	 * if the calling thread is interrupted.
+	 * <p>
+	 * Queries only read, so outside a transaction they run on a read replica of
+	 * the JDBC URL if it has any.
+	 */
+	private <T> T query(final String jdbcUrl, final String userName, final String password, final int fetchSize,
+			final QueryExecution execution, final StatementFactory statementFactory,
+			final ResultSetHandler<T> resultSetHandler) throws SQLException, DatabaseConnectorException {
+		return query(jdbcUrl, fetchSize, execution, () -> getReadConnection(jdbcUrl, userName, password),
+				statementFactory, resultSetHandler);
+	}
+
+	private <T> T query(final String jdbcUrl, final int fetchSize, final QueryExecution execution,
+			final ConnectionSource connectionSource, final StatementFactory statementFactory,
+			final ResultSetHandler<T> resultSetHandler) throws SQLException, DatabaseConnectorException {
+		boolean failed = true;
+		long phaseStart = System.nanoTime();
+		long executeStart = phaseStart;
+		try (Connection connection = connectionSource.get()) {
+			execution.recordAcquire(System.nanoTime() - phaseStart);
+			executeStart = System.nanoTime();
+			final boolean restoreAutoCommit = fetchSize > 0 && requiresTransactionForCursor(jdbcUrl)
+					&& connection.getAutoCommit();
+			if (restoreAutoCommit) connection.setAutoCommit(false);
+			try {
+				final T result;
+				phaseStart = System.nanoTime();
+				try (PreparedStatement preparedStatement = statementFactory.create(connection)) {
+					applyQueryTimeout(preparedStatement);
+					try (StatementCanceller.Registration registration = statementCanceller.register(preparedStatement, execution);
+							ResultSet resultSet = preparedStatement.executeQuery()) {
+						execution.recordExecute(System.nanoTime() - phaseStart);
+						// The fetch time is recorded by the ResultSetReader, so it leaves out the consumers
+						result = resultSetHandler.handle(resultSet);
+					}
+				}
+				if (restoreAutoCommit) connection.commit();
+				failed = false;
+				return result;
+			} catch (SQLException | DatabaseConnectorException | RuntimeException e) {
+				if (restoreAutoCommit) rollbackQuietly(connection, e);
+				throw e;
+			} finally {
+				if (restoreAutoCommit) connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			classifyFailure(execution, e, executeStart);
+			throw e;
+		} finally {
+			queryMetrics.record(execution, failed, logNode);
+		}
+	}
+
+	private static boolean requiresTransactionForCursor(final String jdbcUrl) {
+		return jdbcUrl != null && jdbcUrl.startsWith("jdbc:postgresql:");
+	}
+
+	private void rollbackQuietly(final Connection connection, final Exception cause) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Begins a transaction on one connection for the context of this connector,
+	 * see {@link TransactionScopes}.
+	 */
+	public void beginTransaction(final String jdbcUrl, final String userName, final String password)
+			throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("beginTransaction: %s, %s", jdbcUrl, userName));
+
+		transactionScopes.begin(requireTransactionContext(), jdbcUrl, userName, password, connectionManager);
+	}
+
+	public void commitTransaction(final String jdbcUrl, final String userName)
+			throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("commitTransaction: %s, %s", jdbcUrl, userName));
+
+		transactionScopes.commit(requireTransactionContext(), jdbcUrl, userName);
+	}
+
+	public void rollbackTransaction(final String jdbcUrl, final String userName)
+			throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("rollbackTransaction: %s, %s", jdbcUrl, userName));
+
+		transactionScopes.rollback(requireTransactionContext(), jdbcUrl, userName);
+	}
+
+	private IContext requireTransactionContext() throws DatabaseConnectorException {
+		if (transactionContext == null)
+			throw new DatabaseConnectorException("This connector was not created for a context, it cannot take part in transactions.");
+		return transactionContext;
+	}
+
+	// The connection of the active transaction of the context, if there is one, or a pooled connection
+	private Connection getConnection(final String jdbcUrl, final String userName, final String password)
+			throws SQLException {
+		final Connection transactionConnection = transactionScopes.getConnection(transactionContext, jdbcUrl, userName);
+		return transactionConnection != null ? transactionConnection
+				: connectionManager.getConnection(jdbcUrl, userName, password);
+	}
+
+	// Like getConnection, but from a read replica outside a transaction
+	private Connection getReadConnection(final String jdbcUrl, final String userName, final String password)
+			throws SQLException {
+		final Connection transactionConnection = transactionScopes.getConnection(transactionContext, jdbcUrl, userName);
+		return transactionConnection != null ? transactionConnection
+				: connectionManager.getReadConnection(jdbcUrl, userName, password);
+	}
+
+	public static StatementTemplateCache getBatchStatementTemplateCache() {
+		return batchStatementTemplates;
+	}
+
+	private static int getDefaultFetchSize() {
+		return Integer.getInteger(FETCH_SIZE_PROPERTY, DEFAULT_FETCH_SIZE);
+	}
+
+	@FunctionalInterface
+	private interface StatementFactory {
+		PreparedStatement create(Connection connection) throws SQLException;
+	}
+
+	@FunctionalInterface
+	private interface ConnectionSource {
+		Connection get() throws SQLException;
+	}
+
+	@FunctionalInterface
+	private interface ResultSetHandler<T> {
+		T handle(ResultSet resultSet) throws SQLException, DatabaseConnectorException;
+	}
+
+	private long streamMendixObjects(final IContext context, final IMetaObject metaObject,
+			final ResultSetReader resultSetReader, final int batchSize, final ObjectBatchConsumer consumer)
+			throws SQLException, DatabaseConnectorException {
+		if (batchSize < 1)
+			throw new DatabaseConnectorException(String.format("Batch size must be at least 1, but was %d.", batchSize));
+
+		long rowCount = 0;
+		List<IMendixObject> batch = new ArrayList<IMendixObject>(batchSize);
+		while (resultSetReader.next()) {
+			batch.add(createMendixObject(context, metaObject, resultSetReader));
+			rowCount++;
+			if (batch.size() == batchSize) {
+				consumer.accept(batch);
+				batch = new ArrayList<IMendixObject>(batchSize);
+			}
+		}
+		if (!batch.isEmpty()) consumer.accept(batch);
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("Streamed %d rows", rowCount));
+		return rowCount;
 	}
 
 	private List<IMendixObject> createMendixObjects(final IContext context,
-			final IMetaObject metaObject, List<Map<String, Optional<Object>>> resultSet) throws DatabaseConnectorException {
+			final IMetaObject metaObject, final ResultSetReader resultSetReader) throws SQLException {
 		List<IMendixObject> convertedResult = new ArrayList<IMendixObject>();
-		for (Map<String, Optional<Object>> result : resultSet) {
-			convertedResult.add(createMendixObject(context, metaObject, result));
+		while (resultSetReader.next()) {
+			convertedResult.add(createMendixObject(context, metaObject, resultSetReader));
 		}
 		return convertedResult;
 	}
 
 	private IMendixObject createMendixObject(final IContext context,
-			final IMetaObject metaObject, Map<String, Optional<Object>> columns) throws DatabaseConnectorException {
+			final IMetaObject metaObject, final ResultSetReader resultSetReader) throws SQLException {
 		IMendixObject obj = objectInstantiator.instantiate(context, metaObject.getName());
-
-		for (Map.Entry<String, Optional<Object>> column : columns.entrySet()) {
-			setMemberValue(context, metaObject, obj, column.getKey(), column.getValue());
-		}
+		resultSetReader.readRow(context, obj);
 		if (logNode.isTraceEnabled()) logNode.trace("Instantiated object: " + obj);
 		return obj;
 	}
-	
-	private void setMemberValue(IContext context, IMetaObject metaObject, IMendixObject obj, String name, Optional<Object> value) throws DatabaseConnectorException {
-		IMetaPrimitive metaPrimitive = metaObject.getMetaPrimitive(name);
-		if (metaPrimitive == null) {
-			String errorMessage = String.format(
-					"Database attribute '%1$s' is not in the entity '%2$s'."
-							+ " Please check the entity '%2$s' attribute names with the database column names.",
-					name, metaObject.getName());
-			logNode.error(errorMessage);
-			throw new DatabaseConnectorException(errorMessage);
-		}
-		PrimitiveType type = metaPrimitive.getType();
-		// convert to suitable value (different for Binary type)
-		Function<Object, Object> toSuitableValue = toSuitableValue(type);
-		// for Boolean type, convert null to false
-		Supplier<Object> defaultValue = () -> type == PrimitiveType.Boolean ? Boolean.FALSE : null;
-		// apply two functions declared above
-		Object convertedValue = value.map(toSuitableValue).orElseGet(defaultValue);
-		// update object with converted value
-		if (type == PrimitiveType.HashString)
-			throw new DatabaseConnectorException(String.format(
-					"Attribute type Hashed String for attribute '%1$s' on entity '%2$s' is not supported, "
-							+ "please use attribute type 'String' instead",
-					name, metaObject.getName()));
-		else
-			obj.setValue(context, name, convertedValue);
-	}
 
 	public long executeStatement(final String jdbcUrl, final String userName, final String password, final String sql)
 			throws SQLException {
 		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeStatement: %s, %s, %s", jdbcUrl, userName, sql));
 
-		try (Connection connection = connectionManager.getConnection(jdbcUrl, userName, password);
-				PreparedStatement preparedStatement = preparedStatementCreator.create(sql, connection)) {
-			return preparedStatement.executeUpdate();
-		}
+		return update(jdbcUrl, userName, password, QueryExecution.of(sql),
+				connection -> preparedStatementCreator.create(sql, connection));
 	}
 
 	public long executeStatement(final String jdbcUrl, final String userName, final String password,
 			final IStringTemplate sql) throws SQLException {
 		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeStatement: %s, %s, %s", jdbcUrl, userName, sql));
 
-		try (Connection connection = connectionManager.getConnection(jdbcUrl, userName, password);
-				PreparedStatement preparedStatement = preparedStatementCreator.create(sql, connection)) {
-			return preparedStatement.executeUpdate();
+		return update(jdbcUrl, userName, password, QueryExecution.of(sql),
+				connection -> preparedStatementCreator.create(sql, connection));
+	}
+
+	private long update(final String jdbcUrl, final String userName, final String password,
+			final QueryExecution execution, final StatementFactory statementFactory) throws SQLException {
+		boolean failed = true;
+		long phaseStart = System.nanoTime();
+		try (Connection connection = getConnection(jdbcUrl, userName, password)) {
+			execution.recordAcquire(System.nanoTime() - phaseStart);
+			phaseStart = System.nanoTime();
+			try (PreparedStatement preparedStatement = statementFactory.create(connection)) {
+				applyQueryTimeout(preparedStatement);
+				final long updateCount;
+				try (StatementCanceller.Registration registration = statementCanceller.register(preparedStatement, execution)) {
+					updateCount = preparedStatement.executeUpdate();
+				}
+				execution.recordExecute(System.nanoTime() - phaseStart);
+				execution.addRows(updateCount);
+				failed = false;
+				return updateCount;
+			}
+		} catch (SQLException e) {
+			classifyFailure(execution, e, phaseStart);
+			throw e;
+		} finally {
+			queryMetrics.record(execution, failed, logNode);
 		}
 	}
 
+	private void applyQueryTimeout(final java.sql.Statement statement) throws SQLException {
+		if (queryTimeoutSeconds > 0) statement.setQueryTimeout(queryTimeoutSeconds);
+	}
+
+	/**
+	 * Counts a failure as a timeout if the driver reports one, and as a
+	 * cancellation if the statement was cancelled otherwise. Some drivers, such as
+	 * PostgreSQL's, report a timeout as a cancelled statement; that counts as a
+	 * timeout once the query timeout has passed. Other failures are neither, however
+	 * long the statement ran.
+	 */
+	private void classifyFailure(final QueryExecution execution, final SQLException e, final long executeStart) {
+		if (execution.isCancelled()) return;
+		if (e instanceof SQLTimeoutException) {
+			execution.markTimedOut();
+		} else if (isCancelled(e)) {
+			if (queryTimeoutSeconds > 0
+					&& System.nanoTime() - executeStart >= TimeUnit.SECONDS.toNanos(queryTimeoutSeconds)) {
+				execution.markTimedOut();
+			} else {
+				execution.markCancelled();
+			}
+		}
+	}
+
+	// 57014: PostgreSQL and DB2, HY008: SQL Server, 70100: MySQL and MariaDB, ORA-01013: Oracle
+	private static boolean isCancelled(final SQLException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (!(cause instanceof SQLException)) continue;
+			final SQLException sqlException = (SQLException) cause;
+			final String sqlState = sqlException.getSQLState();
+			if ("57014".equals(sqlState) || "HY008".equals(sqlState) || "70100".equals(sqlState)
+					|| sqlException.getErrorCode() == 1013 && sqlState != null && sqlState.startsWith("72")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Executes one statement for every object in the list, using JDBC batching.
+	 * The statement is flushed to the database every batchSize objects, and all
+	 * batches run on one connection in one transaction, which is rolled back if
+	 * any batch fails.
+	 *
+	 * @return the number of affected rows of every flushed batch
+	 */
+	public List<Long> executeBatch(final String jdbcUrl, final String userName, final String password,
+			final String sql, final List<IMendixObject> objects, final int batchSize, final IContext context)
+			throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeBatch: %s, %s, %s", jdbcUrl, userName, sql));
+		if (batchSize < 1)
+			throw new DatabaseConnectorException(String.format("Batch size must be at least 1, but was %d.", batchSize));
+
+		List<Long> updateCounts = new ArrayList<Long>();
+		if (objects.isEmpty()) return updateCounts;
+
+		BatchStatementTemplate template = batchStatementTemplates.get(sql, objects.get(0).getMetaObject());
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("Batch statement template cache: %d hits, %d misses",
+				batchStatementTemplates.getHits(), batchStatementTemplates.getMisses()));
+		final QueryExecution execution = QueryExecution.of(template.getSql());
+		boolean failed = true;
+		long phaseStart = System.nanoTime();
+		try (Connection connection = getConnection(jdbcUrl, userName, password)) {
+			execution.recordAcquire(System.nanoTime() - phaseStart);
+			phaseStart = System.nanoTime();
+			final boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit) connection.setAutoCommit(false);
+			try (PreparedStatement preparedStatement = connection.prepareStatement(template.getSql())) {
+				applyQueryTimeout(preparedStatement);
+				try (StatementCanceller.Registration registration = statementCanceller.register(preparedStatement, execution)) {
+					int pending = 0;
+					for (IMendixObject obj : objects) {
+						template.bind(preparedStatement, context, obj);
+						preparedStatement.addBatch();
+						if (++pending == batchSize) {
+							updateCounts.add(sumUpdateCounts(preparedStatement.executeBatch()));
+							pending = 0;
+						}
+					}
+					if (pending > 0) updateCounts.add(sumUpdateCounts(preparedStatement.executeBatch()));
+				}
+				connection.commit();
+			} catch (SQLException | RuntimeException e) {
+				rollbackQuietly(connection, e);
+				throw e;
+			} finally {
+				if (autoCommit) connection.setAutoCommit(true);
+			}
+			execution.recordExecute(System.nanoTime() - phaseStart);
+			for (long updateCount : updateCounts) {
+				execution.addRows(updateCount);
+			}
+			failed = false;
+		} catch (SQLException e) {
+			classifyFailure(execution, e, phaseStart);
+			throw e;
+		} finally {
+			queryMetrics.record(execution, failed, logNode);
+		}
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("Batch update counts: %s", updateCounts));
+		return updateCounts;
+	}
+
+	// Drivers may report Statement.SUCCESS_NO_INFO instead of a row count, those rows are not counted.
+	private static long sumUpdateCounts(final int[] counts) {
+		long sum = 0;
+		for (int count : counts) {
+			if (count > 0) sum += count;
+		}
+		return sum;
+	}
+
 	public void executeCallableStatement(final String jdbcUrl, final String userName, final String password,
 			final Statement stmt) throws SQLException, DatabaseConnectorException {
 		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeCallableStatement: %s, %s, %s", jdbcUrl, userName, stmt.getContent()));
 
-		try (Connection connection = connectionManager.getConnection(jdbcUrl, userName, password);
-				StatementWrapper callableStatement = callableStatementCreator.create(stmt, connection)) {
-			callableStatement.execute();
+		call(jdbcUrl, userName, password, stmt, StatementWrapper::execute);
+	}
+
+	/**
+	 * Executes a callable statement, passing the rows of its RefCursor output
+	 * parameters to the consumer in pages of pageSize instead of loading them all.
+	 */
+	public void executeCallableStatement(final String jdbcUrl, final String userName, final String password,
+			final Statement stmt, final int pageSize, final RefCursorPageConsumer pageConsumer)
+			throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeCallableStatement: %s, %s, %s", jdbcUrl, userName, stmt.getContent()));
+
+		call(jdbcUrl, userName, password, stmt, callableStatement -> callableStatement.execute(pageSize, pageConsumer));
+	}
+
+	/**
+	 * Executes a callable statement, mapping one of its array, struct and RefCursor
+	 * output parameters onto objects of the entity of outputMapping, see
+	 * {@link StatementWrapper#execute(OutputMapping, String, int, RefCursorPageConsumer)}.
+	 * The objects are passed to the consumer, cursor rows in pages of pageSize, or
+	 * all at once if pageSize is not positive.
+	 */
+	public void executeCallableStatement(final String jdbcUrl, final String userName, final String password,
+			final Statement stmt, final OutputMapping outputMapping, final String outputParameter, final int pageSize,
+			final RefCursorPageConsumer consumer) throws SQLException, DatabaseConnectorException {
+		if (logNode.isTraceEnabled()) logNode.trace(String.format("executeCallableStatement: %s, %s, %s, %s", jdbcUrl, userName, stmt.getContent(), outputMapping.getMetaObject().getName()));
+
+		call(jdbcUrl, userName, password, stmt, callableStatement -> callableStatement.execute(outputMapping, outputParameter, pageSize, consumer));
+	}
+
+	private void call(final String jdbcUrl, final String userName, final String password, final Statement stmt,
+			final CallAction action) throws SQLException, DatabaseConnectorException {
+		final QueryExecution execution = QueryExecution.of(stmt.getContent());
+		boolean failed = true;
+		long phaseStart = System.nanoTime();
+		try (Connection connection = getConnection(jdbcUrl, userName, password)) {
+			execution.recordAcquire(System.nanoTime() - phaseStart);
+			phaseStart = System.nanoTime();
+			try (StatementWrapper callableStatement = callableStatementCreator.create(stmt, connection)) {
+				applyQueryTimeout(callableStatement.getStatement());
+				try (StatementCanceller.Registration registration = statementCanceller
+						.register(callableStatement.getStatement(), execution)) {
+					action.execute(callableStatement);
+				}
+			}
+			execution.recordExecute(System.nanoTime() - phaseStart);
+			failed = false;
+		} catch (SQLException e) {
+			classifyFailure(execution, e, phaseStart);
+			throw e;
+		} finally {
+			queryMetrics.record(execution, failed, logNode);
 		}
 	}
+
+	@FunctionalInterface
+	private interface CallAction {
+		void execute(StatementWrapper callableStatement) throws SQLException, DatabaseConnectorException;
+	}
 }
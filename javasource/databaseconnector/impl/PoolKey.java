@@ -0,0 +1,47 @@
+package databaseconnector.impl;
+
+import java.util.Objects;
+
+/**
+ * Identifies a connection pool by JDBC URL and user name. Unlike a hash of the
+ * concatenated strings, two different URL/user pairs can never map to the same
+ * pool.
+ */
+public final class PoolKey {
+	private final String jdbcUrl;
+	private final String userName;
+	private final int hashCode;
+
+	public PoolKey(final String jdbcUrl, final String userName) {
+		this.jdbcUrl = jdbcUrl;
+		this.userName = userName;
+		// Computed once and without the varargs array of Objects.hash, as a key is made for every connection
+		this.hashCode = 31 * Objects.hashCode(jdbcUrl) + Objects.hashCode(userName);
+	}
+
+	public String getJdbcUrl() {
+		return jdbcUrl;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof PoolKey)) return false;
+		final PoolKey other = (PoolKey) obj;
+		return Objects.equals(jdbcUrl, other.jdbcUrl) && Objects.equals(userName, other.userName);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[url=%s, user=%s]", jdbcUrl, userName);
+	}
+}
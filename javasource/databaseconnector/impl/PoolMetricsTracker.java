@@ -0,0 +1,142 @@
+package databaseconnector.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * HikariCP metrics tracker of one pool. Besides the pool gauges (active, idle,
+ * pending) it keeps histograms of the time spent waiting for a connection and of
+ * the time connections are in use, and counts connection timeouts.
+ */
+public class PoolMetricsTracker implements IMetricsTracker {
+	/** Upper bounds in milliseconds of the histogram buckets, the last bucket has no upper bound. */
+	public static final long[] BUCKET_BOUNDS_MILLIS = { 1, 5, 10, 50, 100, 500, 1000, 5000 };
+
+	private final String poolName;
+	private final String jdbcUrl;
+	private final String userName;
+	private final PoolStats poolStats;
+	private final Histogram acquireWait = new Histogram();
+	private final Histogram usage = new Histogram();
+	private final AtomicLong connectionTimeouts = new AtomicLong();
+	private final AtomicLong connectionsCreated = new AtomicLong();
+
+	public PoolMetricsTracker(final String poolName, final String jdbcUrl, final String userName,
+			final PoolStats poolStats) {
+		this.poolName = poolName;
+		this.jdbcUrl = jdbcUrl;
+		this.userName = userName;
+		this.poolStats = poolStats;
+	}
+
+	@Override
+	public void recordConnectionCreatedMillis(final long connectionCreatedMillis) {
+		connectionsCreated.incrementAndGet();
+	}
+
+	@Override
+	public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos) {
+		acquireWait.record(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+	}
+
+	@Override
+	public void recordConnectionUsageMillis(final long elapsedBorrowedMillis) {
+		usage.record(TimeUnit.MILLISECONDS.toMicros(elapsedBorrowedMillis));
+	}
+
+	@Override
+	public void recordConnectionTimeout() {
+		connectionTimeouts.incrementAndGet();
+	}
+
+	public String getPoolName() {
+		return poolName;
+	}
+
+	public String getJdbcUrl() {
+		return jdbcUrl;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public int getActiveConnections() {
+		return poolStats.getActiveConnections();
+	}
+
+	public int getIdleConnections() {
+		return poolStats.getIdleConnections();
+	}
+
+	public int getTotalConnections() {
+		return poolStats.getTotalConnections();
+	}
+
+	public int getPendingThreads() {
+		return poolStats.getPendingThreads();
+	}
+
+	public int getMaxConnections() {
+		return poolStats.getMaxConnections();
+	}
+
+	public long getConnectionTimeouts() {
+		return connectionTimeouts.get();
+	}
+
+	public long getConnectionsCreated() {
+		return connectionsCreated.get();
+	}
+
+	public Histogram getAcquireWait() {
+		return acquireWait;
+	}
+
+	public Histogram getUsage() {
+		return usage;
+	}
+
+	/**
+	 * Lock-free histogram of durations, with the buckets of
+	 * {@link PoolMetricsTracker#BUCKET_BOUNDS_MILLIS}.
+	 */
+	public static class Histogram {
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong totalMicros = new AtomicLong();
+		private final AtomicLong maxMicros = new AtomicLong();
+
+		void record(final long micros) {
+			int bucket = 0;
+			while (bucket < BUCKET_BOUNDS_MILLIS.length && micros > BUCKET_BOUNDS_MILLIS[bucket] * 1000) {
+				bucket++;
+			}
+			buckets.incrementAndGet(bucket);
+			count.incrementAndGet();
+			totalMicros.addAndGet(micros);
+			maxMicros.accumulateAndGet(micros, Math::max);
+		}
+
+		public long getCount() {
+			return count.get();
+		}
+
+		public long getBucketCount(final int bucket) {
+			return buckets.get(bucket);
+		}
+
+		public double getAverageMillis() {
+			final long n = count.get();
+			return n == 0 ? 0 : totalMicros.get() / 1000.0 / n;
+		}
+
+		public double getMaxMillis() {
+			return maxMicros.get() / 1000.0;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package databaseconnector.impl;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+
+/**
+ * Sizing and timeouts of one connection pool. The defaults can be set with JVM
+ * properties (e.g. -Ddatabaseconnector.Pool.MaximumPoolSize=20), and can be
+ * overridden per JDBC URL with
+ * {@link JdbcConnectionManager#setPoolSettings(String, PoolSettings)}.
+ */
+public class PoolSettings {
+	private static final String PROPERTY_PREFIX = "databaseconnector.Pool.";
+
+	private final int maximumPoolSize;
+	private final int minimumIdle;
+	private final long connectionTimeoutMillis;
+	private final long idleTimeoutMillis;
+	private final long maxLifetimeMillis;
+	private final long leakDetectionThresholdMillis;
+	private final boolean serverPreparedStatements;
+
+	/**
+	 * @param leakDetectionThresholdMillis time a connection may be out of the pool
+	 *                                     before a possible leak is logged, 0
+	 *                                     disables leak detection
+	 * @param serverPreparedStatements     whether MySQL and MariaDB prepare
+	 *                                     statements on the server instead of in
+	 *                                     the driver; only applies to new pools
+	 */
+	public PoolSettings(final int maximumPoolSize, final int minimumIdle, final long connectionTimeoutMillis,
+			final long idleTimeoutMillis, final long maxLifetimeMillis, final long leakDetectionThresholdMillis,
+			final boolean serverPreparedStatements) {
+		this.maximumPoolSize = maximumPoolSize;
+		this.minimumIdle = minimumIdle;
+		this.connectionTimeoutMillis = connectionTimeoutMillis;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.maxLifetimeMillis = maxLifetimeMillis;
+		this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+		this.serverPreparedStatements = serverPreparedStatements;
+	}
+
+	/**
+	 * The settings from the JVM properties, falling back to the HikariCP defaults,
+	 * except for minimumIdle, which is 0 so idle pools do not hold connections.
+	 * Server side prepared statements are off unless
+	 * databaseconnector.Pool.ServerPreparedStatements is true.
+	 */
+	public static PoolSettings fromSystemProperties() {
+		return new PoolSettings(
+				Integer.getInteger(PROPERTY_PREFIX + "MaximumPoolSize", 10),
+				Integer.getInteger(PROPERTY_PREFIX + "MinimumIdle", 0),
+				Long.getLong(PROPERTY_PREFIX + "ConnectionTimeout", 30000L),
+				Long.getLong(PROPERTY_PREFIX + "IdleTimeout", 600000L),
+				Long.getLong(PROPERTY_PREFIX + "MaxLifetime", 1800000L),
+				Long.getLong(PROPERTY_PREFIX + "LeakDetectionThreshold", 0L),
+				Boolean.getBoolean(PROPERTY_PREFIX + "ServerPreparedStatements"));
+	}
+
+	/**
+	 * Applies the settings to a pool. All of them, except for server side prepared
+	 * statements, can be changed while the pool is running.
+	 */
+	public void applyTo(final HikariConfigMXBean config) {
+		config.setMaximumPoolSize(maximumPoolSize);
+		config.setMinimumIdle(Math.min(minimumIdle, maximumPoolSize));
+		config.setConnectionTimeout(connectionTimeoutMillis);
+		config.setIdleTimeout(idleTimeoutMillis);
+		config.setMaxLifetime(maxLifetimeMillis);
+		config.setLeakDetectionThreshold(leakDetectionThresholdMillis);
+	}
+
+	public int getMaximumPoolSize() {
+		return maximumPoolSize;
+	}
+
+	public int getMinimumIdle() {
+		return minimumIdle;
+	}
+
+	public long getConnectionTimeoutMillis() {
+		return connectionTimeoutMillis;
+	}
+
+	public long getIdleTimeoutMillis() {
+		return idleTimeoutMillis;
+	}
+
+	public long getMaxLifetimeMillis() {
+		return maxLifetimeMillis;
+	}
+
+	public long getLeakDetectionThresholdMillis() {
+		return leakDetectionThresholdMillis;
+	}
+
+	public boolean isServerPreparedStatements() {
+		return serverPreparedStatements;
+	}
+}
@@ -12,6 +12,17 @@ import java.util.*;
 import static com.mendix.systemwideinterfaces.javaactions.parameters.TemplateParameterType.*;
 
 public class PreparedStatementCreatorImpl implements PreparedStatementCreator {
+	private static final Map<TemplateParameterType, Integer> sqlTypeMap = createSqlTypeMap();
+
+	private static Map<TemplateParameterType, Integer> createSqlTypeMap() {
+		EnumMap<TemplateParameterType, Integer> sqlTypeMap = new EnumMap<>(TemplateParameterType.class);
+		sqlTypeMap.put(INTEGER, Types.BIGINT);
+		sqlTypeMap.put(STRING, Types.VARCHAR);
+		sqlTypeMap.put(BOOLEAN, Types.BOOLEAN);
+		sqlTypeMap.put(DECIMAL, Types.DECIMAL);
+		sqlTypeMap.put(DATETIME, Types.TIMESTAMP);
+		return Collections.unmodifiableMap(sqlTypeMap);
+	}
 
 	@Override
 	public PreparedStatement create(String query, Connection connection) throws SQLException {
@@ -20,28 +31,47 @@ public class PreparedStatementCreatorImpl implements PreparedStatementCreator {
 
 	@Override
 	public PreparedStatement create(IStringTemplate sql, Connection connection) throws SQLException {
-		List<ITemplateParameter> originalParameters = sql.getParameters();
 		List<ITemplateParameter> queryParameters = new ArrayList<>();
+		PreparedStatement preparedStatement = connection.prepareStatement(toQueryTemplate(sql, queryParameters));
+		addPreparedStatementParameters(queryParameters, preparedStatement);
+		return preparedStatement;
+	}
 
-		String queryTemplate = sql.replacePlaceholders((placeholderString, index) -> {
+	@Override
+	public PreparedStatement createQuery(String query, Connection connection, int fetchSize) throws SQLException {
+		PreparedStatement preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY);
+		setFetchSize(preparedStatement, fetchSize);
+		return preparedStatement;
+	}
+
+	@Override
+	public PreparedStatement createQuery(IStringTemplate sql, Connection connection, int fetchSize) throws SQLException {
+		List<ITemplateParameter> queryParameters = new ArrayList<>();
+		PreparedStatement preparedStatement = connection.prepareStatement(toQueryTemplate(sql, queryParameters),
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		setFetchSize(preparedStatement, fetchSize);
+		addPreparedStatementParameters(queryParameters, preparedStatement);
+		return preparedStatement;
+	}
+
+	private String toQueryTemplate(IStringTemplate sql, List<ITemplateParameter> queryParameters) {
+		List<ITemplateParameter> originalParameters = sql.getParameters();
+
+		return sql.replacePlaceholders((placeholderString, index) -> {
 			queryParameters.add(originalParameters.get(index - 1));
 			return "?";
 		});
+	}
 
-		PreparedStatement preparedStatement = connection.prepareStatement(queryTemplate);
-		addPreparedStatementParameters(queryParameters, preparedStatement);
-		return preparedStatement;
+	private void setFetchSize(PreparedStatement preparedStatement, int fetchSize) throws SQLException {
+		if (fetchSize > 0) {
+			preparedStatement.setFetchSize(fetchSize);
+		}
 	}
 
 	private void addPreparedStatementParameters(List<ITemplateParameter> queryParameters,
 			PreparedStatement preparedStatement) throws SQLException, IllegalArgumentException {
-		EnumMap<TemplateParameterType, Integer> sqlTypeMap = new EnumMap<>(TemplateParameterType.class);
-		sqlTypeMap.put(INTEGER, Types.BIGINT);
-		sqlTypeMap.put(STRING, Types.VARCHAR);
-		sqlTypeMap.put(BOOLEAN, Types.BOOLEAN);
-		sqlTypeMap.put(DECIMAL, Types.DECIMAL);
-		sqlTypeMap.put(DATETIME, Types.TIMESTAMP);
-
 		for (int i = 0; i < queryParameters.size(); i++) {
 			ITemplateParameter parameter = queryParameters.get(i);
 			Object parameterValue = parameter.getValue();
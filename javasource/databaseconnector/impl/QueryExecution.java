@@ -0,0 +1,133 @@
+package databaseconnector.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+import com.mendix.systemwideinterfaces.javaactions.parameters.IStringTemplate;
+import com.mendix.systemwideinterfaces.javaactions.parameters.ITemplateParameter;
+
+/**
+ * Measurements of one query or statement execution: the time spent acquiring a
+ * connection, executing the statement and fetching the result (moving the
+ * cursor and reading the columns, not creating or consuming the objects), the number of
+ * rows and the number of bytes read from binary columns, and whether it timed
+ * out or was cancelled. An execution is measured on one thread, except for the
+ * cancellation by {@link StatementCanceller}, and handed to {@link QueryMetrics}
+ * when it is done.
+ */
+public class QueryExecution {
+	private final String sql;
+	private final List<Object> parameters;
+	private long acquireNanos;
+	private long executeNanos;
+	private long fetchNanos;
+	private long rows;
+	private long binaryBytes;
+	private volatile boolean cancelled;
+	private boolean timedOut;
+
+	private QueryExecution(final String sql, final List<Object> parameters) {
+		this.sql = sql;
+		this.parameters = parameters;
+	}
+
+	public static QueryExecution of(final String sql) {
+		return new QueryExecution(sql, Collections.emptyList());
+	}
+
+	public static QueryExecution of(final IStringTemplate sql) {
+		final List<ITemplateParameter> templateParameters = sql.getParameters();
+		final List<Object> parameters = new ArrayList<>(templateParameters.size());
+		final String queryText = sql.replacePlaceholders((placeholderString, index) -> {
+			parameters.add(templateParameters.get(index - 1).getValue());
+			return "?";
+		});
+		return new QueryExecution(queryText, parameters);
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	void recordAcquire(final long nanos) {
+		acquireNanos = nanos;
+	}
+
+	void recordExecute(final long nanos) {
+		executeNanos = nanos;
+	}
+
+	void addFetch(final long nanos) {
+		fetchNanos += nanos;
+	}
+
+	void addRow() {
+		rows++;
+	}
+
+	void addRows(final long count) {
+		rows += count;
+	}
+
+	void addBinaryBytes(final long bytes) {
+		binaryBytes += bytes;
+	}
+
+	void markCancelled() {
+		cancelled = true;
+	}
+
+	void markTimedOut() {
+		timedOut = true;
+	}
+
+	public long getAcquireNanos() {
+		return acquireNanos;
+	}
+
+	public long getExecuteNanos() {
+		return executeNanos;
+	}
+
+	public long getFetchNanos() {
+		return fetchNanos;
+	}
+
+	public long getTotalNanos() {
+		return acquireNanos + executeNanos + fetchNanos;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getBinaryBytes() {
+		return binaryBytes;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+
+	/**
+	 * Describes the bound parameters without their values, which may hold personal
+	 * data or secrets: strings and binaries by their length, other values by their
+	 * type.
+	 */
+	public String describeParameters() {
+		final StringJoiner description = new StringJoiner(", ", "[", "]");
+		for (Object parameter : parameters) {
+			if (parameter == null) description.add("null");
+			else if (parameter instanceof String) description.add("String(" + ((String) parameter).length() + ")");
+			else if (parameter instanceof byte[]) description.add("Binary(" + ((byte[]) parameter).length + ")");
+			else description.add(parameter.getClass().getSimpleName());
+		}
+		return description.toString();
+	}
+}
@@ -0,0 +1,201 @@
+package databaseconnector.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.mendix.logging.ILogNode;
+
+/**
+ * Execution statistics of queries and statements, aggregated per SQL
+ * fingerprint: the SQL text with literals replaced by ? and whitespace
+ * collapsed, so that queries that only differ in their values share one entry.
+ * Executions that take longer than the slow query threshold are logged as a
+ * warning, with the fingerprint and a redacted description of the bound
+ * parameters.
+ * <p>
+ * The threshold and the maximum number of fingerprints can be set with the JVM
+ * properties databaseconnector.QueryMetrics.SlowQueryThresholdMillis (0
+ * disables the slow query log) and databaseconnector.QueryMetrics.MaxFingerprints.
+ * Executions beyond the maximum number of fingerprints are counted under
+ * {@link #OTHER_FINGERPRINT}.
+ * <p>
+ * The fingerprints of the most recently executed SQL texts are kept in a
+ * bounded LRU, so a statement that is executed over and over is only
+ * fingerprinted once. Its size can be set with the JVM property
+ * databaseconnector.QueryMetrics.FingerprintCacheSize.
+ */
+public class QueryMetrics {
+	public static final String OTHER_FINGERPRINT = "(other)";
+	private static final String PROPERTY_PREFIX = "databaseconnector.QueryMetrics.";
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern VALUE_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+	private final long slowQueryThresholdNanos;
+	private final int maxFingerprints;
+	private final Map<String, QueryStats> statistics = new ConcurrentHashMap<>();
+	private final Map<String, String> fingerprints;
+
+	public QueryMetrics(final long slowQueryThresholdMillis, final int maxFingerprints,
+			final int fingerprintCacheSize) {
+		this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+		this.maxFingerprints = maxFingerprints;
+		this.fingerprints = new LinkedHashMap<String, String>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+				return size() > fingerprintCacheSize;
+			}
+		};
+	}
+
+	public static QueryMetrics fromSystemProperties() {
+		return new QueryMetrics(Long.getLong(PROPERTY_PREFIX + "SlowQueryThresholdMillis", 5000),
+				Integer.getInteger(PROPERTY_PREFIX + "MaxFingerprints", 500),
+				Integer.getInteger(PROPERTY_PREFIX + "FingerprintCacheSize", 1000));
+	}
+
+	/**
+	 * Replaces string and number literals by ?, collapses lists of values to a
+	 * single ? and normalizes whitespace.
+	 */
+	public static String fingerprint(final String sql) {
+		String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+		fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+		fingerprint = WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+		return VALUE_LIST.matcher(fingerprint).replaceAll("(?)");
+	}
+
+	/**
+	 * Adds a finished execution to the statistics of its fingerprint, and logs it
+	 * to logNode if it was slow.
+	 */
+	public void record(final QueryExecution execution, final boolean failed, final ILogNode logNode) {
+		final String fingerprint = cachedFingerprint(execution.getSql());
+		QueryStats stats = statistics.get(fingerprint);
+		if (stats == null) {
+			stats = statistics.size() < maxFingerprints
+					? statistics.computeIfAbsent(fingerprint, QueryStats::new)
+					: statistics.computeIfAbsent(OTHER_FINGERPRINT, QueryStats::new);
+		}
+		stats.record(execution, failed);
+
+		if (slowQueryThresholdNanos > 0 && execution.getTotalNanos() >= slowQueryThresholdNanos) {
+			logNode.warn(String.format(
+					"Slow query (%d ms: acquire %d ms, execute %d ms, fetch %d ms, %d rows): %s, parameters: %s",
+					TimeUnit.NANOSECONDS.toMillis(execution.getTotalNanos()),
+					TimeUnit.NANOSECONDS.toMillis(execution.getAcquireNanos()),
+					TimeUnit.NANOSECONDS.toMillis(execution.getExecuteNanos()),
+					TimeUnit.NANOSECONDS.toMillis(execution.getFetchNanos()), execution.getRows(), fingerprint,
+					execution.describeParameters()));
+		}
+	}
+
+	private String cachedFingerprint(final String sql) {
+		synchronized (fingerprints) {
+			final String fingerprint = fingerprints.get(sql);
+			if (fingerprint != null) return fingerprint;
+		}
+		// Computed outside the lock, a concurrent miss on the same SQL just computes it twice.
+		final String fingerprint = fingerprint(sql);
+		synchronized (fingerprints) {
+			fingerprints.put(sql, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	public Collection<QueryStats> getStatistics() {
+		return Collections.unmodifiableCollection(statistics.values());
+	}
+
+	public void reset() {
+		statistics.clear();
+	}
+
+	/**
+	 * Statistics of one fingerprint: counts of executions, failures, timeouts and
+	 * cancellations, and histograms of the acquire, execute, fetch and total time
+	 * of its executions.
+	 */
+	public static class QueryStats {
+		private final String fingerprint;
+		private final AtomicLong executions = new AtomicLong();
+		private final AtomicLong failures = new AtomicLong();
+		private final AtomicLong timeouts = new AtomicLong();
+		private final AtomicLong cancellations = new AtomicLong();
+		private final AtomicLong rows = new AtomicLong();
+		private final AtomicLong binaryBytes = new AtomicLong();
+		private final PoolMetricsTracker.Histogram acquire = new PoolMetricsTracker.Histogram();
+		private final PoolMetricsTracker.Histogram execute = new PoolMetricsTracker.Histogram();
+		private final PoolMetricsTracker.Histogram fetch = new PoolMetricsTracker.Histogram();
+		private final PoolMetricsTracker.Histogram total = new PoolMetricsTracker.Histogram();
+
+		private QueryStats(final String fingerprint) {
+			this.fingerprint = fingerprint;
+		}
+
+		private void record(final QueryExecution execution, final boolean failed) {
+			executions.incrementAndGet();
+			if (failed) failures.incrementAndGet();
+			if (execution.isTimedOut()) timeouts.incrementAndGet();
+			if (execution.isCancelled()) cancellations.incrementAndGet();
+			rows.addAndGet(execution.getRows());
+			binaryBytes.addAndGet(execution.getBinaryBytes());
+			acquire.record(TimeUnit.NANOSECONDS.toMicros(execution.getAcquireNanos()));
+			execute.record(TimeUnit.NANOSECONDS.toMicros(execution.getExecuteNanos()));
+			fetch.record(TimeUnit.NANOSECONDS.toMicros(execution.getFetchNanos()));
+			total.record(TimeUnit.NANOSECONDS.toMicros(execution.getTotalNanos()));
+		}
+
+		public String getFingerprint() {
+			return fingerprint;
+		}
+
+		public long getExecutions() {
+			return executions.get();
+		}
+
+		public long getFailures() {
+			return failures.get();
+		}
+
+		public long getTimeouts() {
+			return timeouts.get();
+		}
+
+		public long getCancellations() {
+			return cancellations.get();
+		}
+
+		public long getRows() {
+			return rows.get();
+		}
+
+		public long getBinaryBytes() {
+			return binaryBytes.get();
+		}
+
+		public PoolMetricsTracker.Histogram getAcquire() {
+			return acquire;
+		}
+
+		public PoolMetricsTracker.Histogram getExecute() {
+			return execute;
+		}
+
+		public PoolMetricsTracker.Histogram getFetch() {
+			return fetch;
+		}
+
+		public PoolMetricsTracker.Histogram getTotal() {
+			return total;
+		}
+	}
+}
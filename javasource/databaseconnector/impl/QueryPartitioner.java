@@ -0,0 +1,129 @@
+package databaseconnector.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * QueryPartitioner splits a SELECT query on the range of a numeric or date
+ * column, so that the partitions can be read on separate connections. The
+ * query is wrapped as a derived table and every partition adds a range
+ * condition on the partition column. Rows where the column is null belong to
+ * the first partition.
+ */
+public class QueryPartitioner {
+	private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*|\"[^\"]+\"");
+
+	private final String sql;
+	private final String column;
+
+	public QueryPartitioner(final String sql, final String column) throws DatabaseConnectorException {
+		if (column == null || !COLUMN_NAME.matcher(column).matches())
+			throw new DatabaseConnectorException(String.format("Invalid partition column name '%s'.", column));
+		this.sql = sql.trim().replaceAll(";+$", "");
+		this.column = column;
+	}
+
+	/**
+	 * @return a query selecting the minimum and maximum of the partition column
+	 */
+	public String getBoundsQuery() {
+		return String.format("SELECT MIN(%1$s), MAX(%1$s) FROM (%2$s) q", column, sql);
+	}
+
+	/**
+	 * Splits [min, max] into at most count partitions of equal width. The first
+	 * and last partition are open-ended, so no row is lost to rounding of the
+	 * bounds. A null min (no rows, or only nulls) results in one partition with
+	 * the whole query.
+	 */
+	public List<Partition> split(final Object min, final Object max, final int count) throws DatabaseConnectorException {
+		final List<Object> cuts = new ArrayList<>();
+		if (min != null && max != null) {
+			final boolean isDate = !(min instanceof Number);
+			final BigDecimal lower = toBigDecimal(min);
+			final boolean isIntegral = !isDate && lower.scale() <= 0 && toBigDecimal(max).scale() <= 0;
+			final BigDecimal step = toBigDecimal(max).subtract(lower).divide(BigDecimal.valueOf(count), 10,
+					RoundingMode.DOWN);
+			Object previous = null;
+			for (int i = 1; i < count && step.signum() > 0; i++) {
+				BigDecimal value = lower.add(step.multiply(BigDecimal.valueOf(i)));
+				// Whole number cuts for whole number columns, so a narrow range gives fewer, non-empty partitions
+				if (isIntegral) value = value.setScale(0, RoundingMode.CEILING);
+				final Object cut = toBound(value, isDate);
+				if (!cut.equals(previous)) cuts.add(cut);
+				previous = cut;
+			}
+		}
+
+		final List<Partition> partitions = new ArrayList<>();
+		if (cuts.isEmpty()) {
+			partitions.add(new Partition(String.format("SELECT * FROM (%s) q", sql), null, null));
+			return partitions;
+		}
+		partitions.add(new Partition(String.format("SELECT * FROM (%1$s) q WHERE %2$s < ? OR %2$s IS NULL", sql, column),
+				null, cuts.get(0)));
+		for (int i = 1; i < cuts.size(); i++) {
+			partitions.add(new Partition(String.format("SELECT * FROM (%1$s) q WHERE %2$s >= ? AND %2$s < ?", sql, column),
+					cuts.get(i - 1), cuts.get(i)));
+		}
+		partitions.add(new Partition(String.format("SELECT * FROM (%1$s) q WHERE %2$s >= ?", sql, column),
+				cuts.get(cuts.size() - 1), null));
+		return partitions;
+	}
+
+	private static BigDecimal toBigDecimal(final Object value) throws DatabaseConnectorException {
+		if (value instanceof BigDecimal) return (BigDecimal) value;
+		if (value instanceof Number) return new BigDecimal(value.toString());
+		if (value instanceof java.util.Date) return BigDecimal.valueOf(((java.util.Date) value).getTime());
+		if (value instanceof LocalDateTime) return BigDecimal.valueOf(Timestamp.valueOf((LocalDateTime) value).getTime());
+		if (value instanceof LocalDate)
+			return BigDecimal.valueOf(Timestamp.valueOf(((LocalDate) value).atStartOfDay()).getTime());
+		throw new DatabaseConnectorException(String.format(
+				"Partition column must be numeric or a date, but has values of type %s.", value.getClass().getName()));
+	}
+
+	private static Object toBound(final BigDecimal value, final boolean isDate) {
+		return isDate ? new Timestamp(value.longValue()) : value;
+	}
+
+	public static class Partition {
+		private final String sql;
+		private final Object lower;
+		private final Object upper;
+
+		private Partition(final String sql, final Object lower, final Object upper) {
+			this.sql = sql;
+			this.lower = lower;
+			this.upper = upper;
+		}
+
+		public String getSql() {
+			return sql;
+		}
+
+		public void bind(final PreparedStatement preparedStatement) throws SQLException {
+			int index = 1;
+			if (lower != null) bindValue(preparedStatement, index++, lower);
+			if (upper != null) bindValue(preparedStatement, index, upper);
+		}
+
+		private static void bindValue(final PreparedStatement preparedStatement, final int index, final Object value)
+				throws SQLException {
+			if (value instanceof Timestamp) preparedStatement.setTimestamp(index, (Timestamp) value);
+			else preparedStatement.setBigDecimal(index, (BigDecimal) value);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("[%s, %s)", lower == null ? "" : lower, upper == null ? "" : upper);
+		}
+	}
+}
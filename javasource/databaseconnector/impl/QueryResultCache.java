@@ -0,0 +1,242 @@
+package databaseconnector.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+import com.mendix.systemwideinterfaces.javaactions.parameters.IStringTemplate;
+import com.mendix.systemwideinterfaces.javaactions.parameters.ITemplateParameter;
+
+/**
+ * Cache of query results, for read-only queries on data that changes rarely.
+ * Results are kept as rows of column values, not as Mendix objects, so they can
+ * be turned into new objects for any context. Entries expire after their time to
+ * live, and the least recently used entries are evicted when the cache is full.
+ * Results with more than the maximum number of rows are not cached, nor are
+ * results with binary values that were spooled to a temp file, as those can
+ * only be read once.
+ * <p>
+ * The limits can be set with the JVM properties
+ * databaseconnector.QueryCache.MaxEntries and
+ * databaseconnector.QueryCache.MaxRowsPerEntry.
+ */
+public class QueryResultCache {
+	private static final String PROPERTY_PREFIX = "databaseconnector.QueryCache.";
+
+	private final int maxRowsPerEntry;
+	private final Map<Key, CachedResult> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public QueryResultCache(final int maxEntries, final int maxRowsPerEntry) {
+		this.maxRowsPerEntry = maxRowsPerEntry;
+		this.entries = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, CachedResult> eldest) {
+				final boolean evict = size() > maxEntries;
+				if (evict) evictions.incrementAndGet();
+				return evict;
+			}
+		};
+	}
+
+	public static QueryResultCache fromSystemProperties() {
+		return new QueryResultCache(Integer.getInteger(PROPERTY_PREFIX + "MaxEntries", 1000),
+				Integer.getInteger(PROPERTY_PREFIX + "MaxRowsPerEntry", 10000));
+	}
+
+	/**
+	 * @return the cached result, or null if there is none or it has expired
+	 */
+	public CachedResult get(final Key key) {
+		synchronized (entries) {
+			final CachedResult result = entries.get(key);
+			if (result != null && result.isExpired(System.nanoTime())) {
+				entries.remove(key);
+				evictions.incrementAndGet();
+			} else if (result != null) {
+				hits.incrementAndGet();
+				return result;
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	public void put(final Key key, final CachedResult result) {
+		if (result.rows.size() > maxRowsPerEntry || result.hasSpooledValues()) return;
+		synchronized (entries) {
+			entries.put(key, result);
+		}
+	}
+
+	public int getMaxRowsPerEntry() {
+		return maxRowsPerEntry;
+	}
+
+	/**
+	 * Removes all results of queries on the given JDBC URL, or all results if the
+	 * URL is null or empty.
+	 *
+	 * @return the number of removed results
+	 */
+	public int invalidate(final String jdbcUrl) {
+		synchronized (entries) {
+			if (jdbcUrl == null || jdbcUrl.isEmpty()) {
+				final int size = entries.size();
+				entries.clear();
+				return size;
+			}
+			int removed = 0;
+			for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext();) {
+				if (jdbcUrl.equals(keys.next().jdbcUrl)) {
+					keys.remove();
+					removed++;
+				}
+			}
+			return removed;
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public double getHitRate() {
+		final long lookups = hits.get() + misses.get();
+		return lookups == 0 ? 0 : (double) hits.get() / lookups;
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Identifies a query result by connection, query text, bound parameter values
+	 * and target entity. The connection includes a salted hash of the password, so
+	 * a call with a wrong password is not answered from the cache.
+	 */
+	public static final class Key {
+		private static final byte[] fingerprintSalt = new byte[16];
+
+		static {
+			new SecureRandom().nextBytes(fingerprintSalt);
+		}
+
+		private final String jdbcUrl;
+		private final String userName;
+		private final byte[] credentialFingerprint;
+		private final String sql;
+		private final List<Object> parameterValues;
+		private final String entityName;
+
+		private Key(final String jdbcUrl, final String userName, final byte[] credentialFingerprint, final String sql,
+				final List<Object> parameterValues, final String entityName) {
+			this.jdbcUrl = jdbcUrl;
+			this.userName = userName;
+			this.credentialFingerprint = credentialFingerprint;
+			this.sql = sql;
+			this.parameterValues = parameterValues;
+			this.entityName = entityName;
+		}
+
+		public static Key of(final String jdbcUrl, final String userName, final String password,
+				final IStringTemplate sql, final IMetaObject metaObject) {
+			final List<ITemplateParameter> parameters = sql.getParameters();
+			final List<Object> parameterValues = new ArrayList<>();
+			final String queryText = sql.replacePlaceholders((placeholderString, index) -> {
+				final Object value = parameters.get(index - 1).getValue();
+				// Dates are mutable, use their time as key
+				parameterValues.add(value instanceof java.util.Date ? ((java.util.Date) value).getTime() : value);
+				return "?";
+			});
+			return new Key(jdbcUrl, userName, toCredentialFingerprint(password), queryText, parameterValues,
+					metaObject.getName());
+		}
+
+		private static byte[] toCredentialFingerprint(final String password) {
+			try {
+				final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				digest.update(fingerprintSalt);
+				if (password != null) digest.update(password.getBytes(StandardCharsets.UTF_8));
+				return digest.digest();
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof Key)) return false;
+			final Key other = (Key) obj;
+			return Objects.equals(jdbcUrl, other.jdbcUrl) && Objects.equals(userName, other.userName)
+					&& MessageDigest.isEqual(credentialFingerprint, other.credentialFingerprint)
+					&& Objects.equals(sql, other.sql) && Objects.equals(parameterValues, other.parameterValues)
+					&& Objects.equals(entityName, other.entityName);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(jdbcUrl, userName, Arrays.hashCode(credentialFingerprint), sql, parameterValues,
+					entityName);
+		}
+	}
+
+	/**
+	 * The rows of a query result, as read by {@link ResultSetReader#readValues()}.
+	 */
+	public static final class CachedResult {
+		private final String[] attributeNames;
+		private final List<Object[]> rows;
+		private final long expiresAt;
+
+		public CachedResult(final String[] attributeNames, final List<Object[]> rows, final long timeToLiveMillis) {
+			this.attributeNames = attributeNames;
+			this.rows = rows;
+			this.expiresAt = System.nanoTime() + timeToLiveMillis * 1_000_000L;
+		}
+
+		private boolean hasSpooledValues() {
+			for (Object[] row : rows) {
+				for (Object value : row) {
+					if (value instanceof SpooledBinary && ((SpooledBinary) value).isSpooled()) return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isExpired(final long now) {
+			return now - expiresAt >= 0;
+		}
+
+		public String[] getAttributeNames() {
+			return attributeNames;
+		}
+
+		public List<Object[]> getRows() {
+			return rows;
+		}
+	}
+}
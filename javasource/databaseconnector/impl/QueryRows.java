@@ -0,0 +1,42 @@
+package databaseconnector.impl;
+
+import java.util.List;
+
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+
+/**
+ * The rows of a query result as read by {@link ResultSetReader#readValues()},
+ * not yet turned into Mendix objects, so that they can be read on one thread and
+ * turned into objects on the thread that owns the context.
+ */
+public class QueryRows {
+	private final IMetaObject metaObject;
+	private final String[] attributeNames;
+	private final List<Object[]> rows;
+
+	public QueryRows(final IMetaObject metaObject, final String[] attributeNames, final List<Object[]> rows) {
+		this.metaObject = metaObject;
+		this.attributeNames = attributeNames;
+		this.rows = rows;
+	}
+
+	public IMetaObject getMetaObject() {
+		return metaObject;
+	}
+
+	public String[] getAttributeNames() {
+		return attributeNames;
+	}
+
+	public List<Object[]> getRows() {
+		return rows;
+	}
+
+	/**
+	 * Deletes the temp files of spooled binary values, for rows that will not be
+	 * turned into objects.
+	 */
+	public void discard() {
+		SpooledBinary.discardAll(rows);
+	}
+}
@@ -0,0 +1,97 @@
+package databaseconnector.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * The read replicas of a primary database, set with
+ * {@link JdbcConnectionManager#setReadReplicas(String, ReadReplicas)}. Queries
+ * on the JDBC URL of the primary are spread over the replicas, statements keep
+ * going to the primary.
+ * <p>
+ * A replica that cannot be connected to is taken out of rotation until a health
+ * check succeeds again. When no replica is left, queries go to the primary.
+ */
+public class ReadReplicas {
+	public enum Routing {
+		/** Every query goes to the next replica in turn. */
+		ROUND_ROBIN,
+		/** Every query goes to the replica with the fewest connections in use. */
+		LEAST_ACTIVE;
+
+		/**
+		 * @param value RoundRobin or LeastActive, case insensitive; empty for
+		 *              RoundRobin
+		 */
+		public static Routing parse(final String value) throws DatabaseConnectorException {
+			if (value == null || value.trim().isEmpty()) return ROUND_ROBIN;
+			for (Routing routing : values()) {
+				if (routing.name().replace("_", "").equalsIgnoreCase(value.trim())) return routing;
+			}
+			throw new DatabaseConnectorException(String.format(
+					"Unknown routing '%s', use RoundRobin or LeastActive.", value));
+		}
+	}
+
+	private final List<String> jdbcUrls;
+	private final Routing routing;
+	private final Set<String> failedJdbcUrls = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReadReplicas(final List<String> jdbcUrls, final Routing routing) {
+		this.jdbcUrls = Collections.unmodifiableList(new ArrayList<>(jdbcUrls));
+		this.routing = routing;
+	}
+
+	public List<String> getJdbcUrls() {
+		return jdbcUrls;
+	}
+
+	public Routing getRouting() {
+		return routing;
+	}
+
+	/**
+	 * @param activeConnections the number of connections in use, or waited for, on
+	 *                          a replica
+	 * @return the replicas in rotation, in the order they should be tried
+	 */
+	public List<String> candidates(final ToIntFunction<String> activeConnections) {
+		final List<String> candidates = new ArrayList<>(jdbcUrls.size());
+		for (String jdbcUrl : jdbcUrls) {
+			if (!failedJdbcUrls.contains(jdbcUrl)) candidates.add(jdbcUrl);
+		}
+		if (candidates.size() < 2) return candidates;
+
+		Collections.rotate(candidates, -Math.floorMod(next.getAndIncrement(), candidates.size()));
+		if (routing == Routing.LEAST_ACTIVE) {
+			// The sort is stable, so replicas that are equally busy still take turns
+			candidates.sort(Comparator.comparingInt(activeConnections));
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return whether the replica was in rotation
+	 */
+	public boolean markFailed(final String jdbcUrl) {
+		return failedJdbcUrls.add(jdbcUrl);
+	}
+
+	/**
+	 * @return whether the replica was out of rotation
+	 */
+	public boolean markHealthy(final String jdbcUrl) {
+		return failedJdbcUrls.remove(jdbcUrl);
+	}
+
+	public boolean isFailed(final String jdbcUrl) {
+		return failedJdbcUrls.contains(jdbcUrl);
+	}
+}
@@ -1,94 +1,229 @@
 package databaseconnector.impl;
 
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
-
+import java.io.IOException;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 import java.util.TimeZone;
-import java.util.function.Function;
 
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
 import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive;
+import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive.PrimitiveType;
 
 /**
- * ResultSetReader converts a given instance of {@link ResultSet} into a list of
- * instances of Map<String, Object>, with key for column name and value for
- * column value.
+ * ResultSetReader copies the rows of a given {@link ResultSet} into Mendix
+ * objects. The mapping of columns to attributes is resolved once, when the
+ * reader is created, into a binding plan with one {@link ColumnInfo} per column,
+ * so reading a row is a plain loop over that plan.
+ * <p>
+ * Binary columns are read through their stream into a {@link SpooledBinary}, so
+ * large values are spooled to a temp file instead of being held on the heap,
+ * and are streamed from there into the attribute (for instance the Contents of
+ * a FileDocument) when the object is committed.
  */
 public class ResultSetReader {
-	private final ResultSetIterator rsIter;
+	private final ResultSet resultSet;
+	private final ColumnInfo[] bindingPlan;
+	private final QueryExecution execution;
 	private final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
 
-	public ResultSetReader(final ResultSet resultSet, final IMetaObject metaObject) {
-		this.rsIter = new ResultSetIterator(resultSet, metaObject);
+	/**
+	 * Creates a reader that does not count what it reads, for results that are not
+	 * part of the query metrics, such as cursors returned by stored procedures.
+	 */
+	public ResultSetReader(final ResultSet resultSet, final IMetaObject metaObject)
+			throws SQLException, DatabaseConnectorException {
+		this(resultSet, metaObject, null);
 	}
 
 	/**
-	 * Read all records into list of maps.
-	 *
-	 * @return list of records, where records are represented as map
-	 * @throws SQLException
+	 * @param execution counts the rows and binary bytes that are read
 	 */
-	public List<Map<String, Optional<Object>>> readAll() throws SQLException {
-		// Force the stream to read the whole ResultSet, so that the connection can be
-		// closed.
-		return rsIter.stream().map(this::getRowResult).collect(toList());
+	public ResultSetReader(final ResultSet resultSet, final IMetaObject metaObject, final QueryExecution execution)
+			throws SQLException, DatabaseConnectorException {
+		this(resultSet, createBindingPlan(resultSet.getMetaData(), metaObject), execution);
+	}
+
+	private ResultSetReader(final ResultSet resultSet, final ColumnInfo[] bindingPlan, final QueryExecution execution) {
+		this.resultSet = resultSet;
+		this.execution = execution;
+		this.bindingPlan = bindingPlan;
 	}
 
 	/**
-	 * The Optional type for value is used because Collectors.toMap does not accept
-	 * null for a value.
+	 * Creates a reader that binds the columns by position onto the given
+	 * attributes, instead of by column name, and does not count what it reads.
 	 */
-	private Map<String, Optional<Object>> getRowResult(final ResultSet rs) {
-		return rsIter.getColumnInfos().collect(toMap(ColumnInfo::getName, curryGetColumnResult(rs)));
+	public static ResultSetReader byPosition(final ResultSet resultSet, final IMetaObject metaObject,
+			final String[] attributeNames) throws SQLException, DatabaseConnectorException {
+		final int columnCount = resultSet.getMetaData().getColumnCount();
+		if (columnCount > attributeNames.length) {
+			throw new DatabaseConnectorException(String.format(
+					"Result has %d columns, but only %d attributes of entity '%s' are mapped.", columnCount,
+					attributeNames.length, metaObject.getName()));
+		}
+		final ColumnInfo[] plan = new ColumnInfo[columnCount];
+		for (int index = 1; index <= columnCount; index++) {
+			final String attributeName = attributeNames[index - 1];
+			plan[index - 1] = new ColumnInfo(index, attributeName, getAttributeType(metaObject, attributeName));
+		}
+		return new ResultSetReader(resultSet, plan, null);
 	}
 
-	private Function<ColumnInfo, Optional<Object>> curryGetColumnResult(final ResultSet rs) {
-		return ci -> getColumnResult(rs, ci);
+	private static ColumnInfo[] createBindingPlan(final ResultSetMetaData resultSetMetaData,
+			final IMetaObject metaObject) throws SQLException, DatabaseConnectorException {
+		final ColumnInfo[] plan = new ColumnInfo[resultSetMetaData.getColumnCount()];
+		for (int index = 1; index <= plan.length; index++) {
+			final String columnName = resultSetMetaData.getColumnLabel(index);
+			final PrimitiveType type = getAttributeType(metaObject, columnName);
+			plan[index - 1] = new ColumnInfo(index, columnName, type);
+		}
+		return plan;
 	}
 
-	private Optional<Object> getColumnResult(final ResultSet rs, final ColumnInfo columnInfo) {
-		try {
-			final int columnIndex = columnInfo.getIndex();
-			Object columnValue = null;
-			switch (columnInfo.getType()) {
-			case Integer:
-				columnValue = rs.getInt(columnIndex);
-				break;
-			case AutoNumber:
-			case Long:
-				columnValue = rs.getLong(columnIndex);
-				break;
-			case DateTime:
-				Timestamp timeStamp = rs.getTimestamp(columnIndex, calendar);
-				columnValue = (timeStamp != null) ? new Date(timeStamp.getTime()) : null;
-				break;
-			case Boolean:
-				columnValue = rs.getBoolean(columnIndex);
-				break;
-			case Decimal:
-				columnValue = rs.getBigDecimal(columnIndex);
-				break;
-			case Enum:
-			case String:
-				columnValue = rs.getString(columnIndex);
-				break;
-			case Binary:
-				columnValue = rs.getBytes(columnIndex);
-				break;
-			default:
-				//Do nothing, just to impress sonarqube.
+	private static PrimitiveType getAttributeType(final IMetaObject metaObject, final String columnName)
+			throws DatabaseConnectorException {
+		IMetaPrimitive caseInsensitiveMatch = null;
+		for (IMetaPrimitive metaPrimitive : metaObject.getMetaPrimitives()) {
+			if (metaPrimitive.getName().equalsIgnoreCase(columnName)) {
+				caseInsensitiveMatch = metaPrimitive;
 				break;
 			}
-			return rs.wasNull() ? Optional.empty() : Optional.ofNullable(columnValue);
-		} catch (SQLException e) {
-			throw new RuntimeException(e);
 		}
+		if (caseInsensitiveMatch == null) {
+			final String msg = "The entity type '%s' does not contain the primitive '%s' as specified in the query.";
+			throw new DatabaseConnectorException(String.format(msg, metaObject.getName(), columnName));
+		}
+
+		final IMetaPrimitive metaPrimitive = metaObject.getMetaPrimitive(columnName);
+		if (metaPrimitive == null) {
+			throw new DatabaseConnectorException(String.format(
+					"Database attribute '%1$s' is not in the entity '%2$s'."
+							+ " Please check the entity '%2$s' attribute names with the database column names.",
+					columnName, metaObject.getName()));
+		}
+		if (metaPrimitive.getType() == PrimitiveType.HashString) {
+			throw new DatabaseConnectorException(String.format(
+					"Attribute type Hashed String for attribute '%1$s' on entity '%2$s' is not supported, "
+							+ "please use attribute type 'String' instead",
+					columnName, metaObject.getName()));
+		}
+		return metaPrimitive.getType();
+	}
+
+	/**
+	 * Moves the cursor to the next row.
+	 *
+	 * @return false when there are no more rows
+	 */
+	public boolean next() throws SQLException {
+		if (execution == null) return resultSet.next();
+		final long start = System.nanoTime();
+		final boolean hasRow = resultSet.next();
+		execution.addFetch(System.nanoTime() - start);
+		if (hasRow) execution.addRow();
+		return hasRow;
+	}
+
+	/**
+	 * Copies the columns of the current row into the attributes of the given object.
+	 */
+	public void readRow(final IContext context, final IMendixObject obj) throws SQLException {
+		setValues(context, obj, readValues());
+	}
+
+	/**
+	 * Reads the columns of the current row without an object to copy them into, so
+	 * that the row can be handed over to another thread or kept for later. Binary
+	 * columns are read as {@link SpooledBinary} values.
+	 */
+	public Object[] readValues() throws SQLException {
+		final long start = execution == null ? 0 : System.nanoTime();
+		final Object[] values = new Object[bindingPlan.length];
+		for (int i = 0; i < bindingPlan.length; i++) {
+			values[i] = getColumnValue(bindingPlan[i]);
+		}
+		if (execution != null) execution.addFetch(System.nanoTime() - start);
+		return values;
+	}
+
+	/**
+	 * Copies values read with {@link #readValues()} into the attributes of the given
+	 * object.
+	 */
+	public void setValues(final IContext context, final IMendixObject obj, final Object[] values) {
+		for (int i = 0; i < bindingPlan.length; i++) {
+			obj.setValue(context, bindingPlan[i].getName(), toAttributeValue(values[i]));
+		}
+	}
+
+	/**
+	 * Copies values read with {@link #readValues()} into the attributes of the given
+	 * object, after the reader itself is gone.
+	 */
+	public static void setValues(final IContext context, final IMendixObject obj, final String[] attributeNames,
+			final Object[] values) {
+		for (int i = 0; i < attributeNames.length; i++) {
+			obj.setValue(context, attributeNames[i], toAttributeValue(values[i]));
+		}
+	}
+
+	public String[] getAttributeNames() {
+		final String[] attributeNames = new String[bindingPlan.length];
+		for (int i = 0; i < bindingPlan.length; i++) {
+			attributeNames[i] = bindingPlan[i].getName();
+		}
+		return attributeNames;
+	}
+
+	// Binary attributes are set from a stream, a new one for every object
+	private static Object toAttributeValue(final Object value) {
+		return value instanceof SpooledBinary ? ((SpooledBinary) value).openStream() : value;
+	}
+
+	private Object getColumnValue(final ColumnInfo columnInfo) throws SQLException {
+		final int columnIndex = columnInfo.getIndex();
+		Object columnValue = null;
+		switch (columnInfo.getType()) {
+		case Integer:
+			columnValue = resultSet.getInt(columnIndex);
+			break;
+		case AutoNumber:
+		case Long:
+			columnValue = resultSet.getLong(columnIndex);
+			break;
+		case DateTime:
+			Timestamp timeStamp = resultSet.getTimestamp(columnIndex, calendar);
+			columnValue = (timeStamp != null) ? new Date(timeStamp.getTime()) : null;
+			break;
+		case Boolean:
+			// null is stored as false
+			return resultSet.getBoolean(columnIndex);
+		case Decimal:
+			columnValue = resultSet.getBigDecimal(columnIndex);
+			break;
+		case Enum:
+		case String:
+			columnValue = resultSet.getString(columnIndex);
+			break;
+		case Binary:
+			try {
+				final SpooledBinary binary = SpooledBinary.read(resultSet.getBinaryStream(columnIndex));
+				if (binary != null && execution != null) execution.addBinaryBytes(binary.length());
+				columnValue = binary;
+			} catch (IOException e) {
+				throw new SQLException(String.format("Could not read binary column '%s'.", columnInfo.getName()), e);
+			}
+			break;
+		default:
+			//Do nothing, just to impress sonarqube.
+			break;
+		}
+		return resultSet.wasNull() ? null : columnValue;
 	}
 }
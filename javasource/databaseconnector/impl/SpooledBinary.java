@@ -0,0 +1,185 @@
+package databaseconnector.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mendix.core.Core;
+
+/**
+ * The value of a binary column, read from the column's stream. Values up to the
+ * spool threshold are kept in memory; larger values are copied to a temp file in
+ * the runtime's temp folder, so a result with many large blobs does not have to
+ * fit on the heap. The file is deleted when the stream returned by
+ * {@link #openStream()} is closed, or when the value is discarded.
+ * <p>
+ * Objects that are never committed never close their stream, so files are also
+ * deleted once they are older than the maximum age; this is checked at most once
+ * a minute, whenever a value is spooled. A value must therefore be committed
+ * within the maximum age after it was read.
+ * <p>
+ * The threshold can be set with the JVM property
+ * databaseconnector.BinarySpoolThreshold (bytes, default 1 MB), the maximum age
+ * with databaseconnector.BinarySpoolMaxAgeSeconds (default 3600).
+ */
+public class SpooledBinary {
+	public static final String SPOOL_THRESHOLD_PROPERTY = "databaseconnector.BinarySpoolThreshold";
+	private static final int DEFAULT_SPOOL_THRESHOLD = 1024 * 1024;
+	private static final int spoolThreshold = Integer.getInteger(SPOOL_THRESHOLD_PROPERTY, DEFAULT_SPOOL_THRESHOLD);
+	private static final long maxAgeNanos = TimeUnit.SECONDS
+			.toNanos(Long.getLong("databaseconnector.BinarySpoolMaxAgeSeconds", 3600));
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+	private static final Map<File, Long> spooledFiles = new ConcurrentHashMap<>();
+	private static final AtomicLong nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+
+	private final byte[] bytes;
+	private final File file;
+	private final long length;
+
+	private SpooledBinary(final byte[] bytes, final File file, final long length) {
+		this.bytes = bytes;
+		this.file = file;
+		this.length = length;
+	}
+
+	/**
+	 * Reads the stream to the end and closes it.
+	 *
+	 * @return the value, or null if the stream is null (SQL NULL)
+	 */
+	public static SpooledBinary read(final InputStream inputStream) throws IOException {
+		if (inputStream == null) return null;
+		try (InputStream in = inputStream) {
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			final byte[] chunk = new byte[8192];
+			int read;
+			while ((read = in.read(chunk)) != -1) {
+				buffer.write(chunk, 0, read);
+				if (buffer.size() > spoolThreshold) {
+					return spoolToFile(buffer, in);
+				}
+			}
+			return new SpooledBinary(buffer.toByteArray(), null, buffer.size());
+		}
+	}
+
+	private static SpooledBinary spoolToFile(final ByteArrayOutputStream head, final InputStream rest) throws IOException {
+		sweepExpiredFiles();
+		final File file = File.createTempFile("MxDbConnector_blob_", ".tmp", Core.getConfiguration().getTempPath());
+		try (OutputStream out = Files.newOutputStream(file.toPath())) {
+			head.writeTo(out);
+			final long length = head.size() + rest.transferTo(out);
+			spooledFiles.put(file, System.nanoTime());
+			return new SpooledBinary(null, file, length);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(file.toPath());
+			throw e;
+		}
+	}
+
+	private static void sweepExpiredFiles() {
+		final long now = System.nanoTime();
+		final long sweepAt = nextSweep.get();
+		if (now - sweepAt < 0 || !nextSweep.compareAndSet(sweepAt, now + SWEEP_INTERVAL_NANOS)) return;
+		spooledFiles.entrySet().removeIf(entry -> {
+			if (now - entry.getValue() < maxAgeNanos) return false;
+			entry.getKey().delete();
+			return true;
+		});
+	}
+
+	private static void delete(final File file) {
+		spooledFiles.remove(file);
+		file.delete();
+	}
+
+	/**
+	 * Discards the values of rows read with {@link ResultSetReader#readValues()}
+	 * that will not be turned into objects.
+	 */
+	public static void discardAll(final Iterable<Object[]> rows) {
+		for (Object[] values : rows) {
+			for (Object value : values) {
+				if (value instanceof SpooledBinary) ((SpooledBinary) value).discard();
+			}
+		}
+	}
+
+	/**
+	 * Deletes the files of all values, for when the module shuts down.
+	 */
+	public static void discardAll() {
+		for (File file : spooledFiles.keySet()) {
+			delete(file);
+		}
+	}
+
+	/**
+	 * @return true if the value is in a temp file, which can only be read once
+	 */
+	public boolean isSpooled() {
+		return file != null;
+	}
+
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Opens the value for reading. An in-memory value can be opened any number of
+	 * times; a spooled value only once, as its file is deleted when the stream is
+	 * closed. The file itself is not opened until the first read, so a result with
+	 * many spooled values does not hold a file handle per value.
+	 */
+	public InputStream openStream() {
+		if (file == null) return new ByteArrayInputStream(bytes);
+		return new InputStream() {
+			private InputStream in;
+
+			private InputStream in() throws IOException {
+				if (in == null) in = new FileInputStream(file);
+				return in;
+			}
+
+			@Override
+			public int read() throws IOException {
+				return in().read();
+			}
+
+			@Override
+			public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+				return in().read(buffer, offset, length);
+			}
+
+			@Override
+			public int available() throws IOException {
+				return in().available();
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					if (in != null) in.close();
+				} finally {
+					delete(file);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Deletes the temp file of a value that will not be read.
+	 */
+	public void discard() {
+		if (file != null) delete(file);
+	}
+}
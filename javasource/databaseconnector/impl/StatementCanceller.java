@@ -0,0 +1,98 @@
+package databaseconnector.impl;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+
+/**
+ * Cancels running statements whose thread has been interrupted, which is what
+ * the runtime does to the thread of a request that is aborted. A JDBC call
+ * blocked on the database does not react to an interrupt itself, so a
+ * background thread checks the threads of the registered statements and calls
+ * {@link Statement#cancel()} on behalf of an interrupted one. This returns its
+ * connection to the pool instead of leaving it busy until the query ends.
+ */
+public class StatementCanceller {
+	private static final long CHECK_INTERVAL_MILLIS = 500;
+
+	private final Map<Registration, Boolean> running = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService executor;
+	private final ILogNode logNode;
+
+	public StatementCanceller(final ILogNode logNode) {
+		this.logNode = logNode;
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "MxDbConnector-statement-canceller");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::cancelInterrupted, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS,
+				TimeUnit.MILLISECONDS);
+	}
+
+	public StatementCanceller() {
+		this(Core.getLogger(StatementCanceller.class.getName()));
+	}
+
+	/**
+	 * Watches the statement until the returned registration is closed. The
+	 * statement runs on the current thread.
+	 */
+	public Registration register(final Statement statement, final QueryExecution execution) {
+		final Registration registration = new Registration(statement, execution, Thread.currentThread());
+		running.put(registration, Boolean.TRUE);
+		return registration;
+	}
+
+	/**
+	 * Stops the background thread; statements are no longer cancelled.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		running.clear();
+	}
+
+	private void cancelInterrupted() {
+		for (Registration registration : running.keySet()) {
+			if (registration.thread.isInterrupted()) {
+				running.remove(registration);
+				registration.cancel();
+			}
+		}
+	}
+
+	public final class Registration implements AutoCloseable {
+		private final Statement statement;
+		private final QueryExecution execution;
+		private final Thread thread;
+
+		private Registration(final Statement statement, final QueryExecution execution, final Thread thread) {
+			this.statement = statement;
+			this.execution = execution;
+			this.thread = thread;
+		}
+
+		private void cancel() {
+			execution.markCancelled();
+			if (logNode.isDebugEnabled()) logNode.debug(String.format("Cancelling statement of interrupted thread %s: %s",
+					thread.getName(), QueryMetrics.fingerprint(execution.getSql())));
+			try {
+				statement.cancel();
+			} catch (SQLException e) {
+				logNode.warn("Cancelling statement failed: " + e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public void close() {
+			running.remove(this);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package databaseconnector.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+
+/**
+ * Bounded LRU of parsed {@link BatchStatementTemplate}s, keyed on entity and
+ * statement text, so that a statement that is executed over and over is only
+ * parsed once. Counts hits and misses.
+ */
+public class StatementTemplateCache {
+	public static final int DEFAULT_SIZE = 256;
+
+	private final Map<String, BatchStatementTemplate> templates;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public StatementTemplateCache(final int maxSize) {
+		this.templates = new LinkedHashMap<String, BatchStatementTemplate>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, BatchStatementTemplate> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	public BatchStatementTemplate get(final String sql, final IMetaObject metaObject) throws DatabaseConnectorException {
+		final String key = metaObject.getName() + '\n' + sql;
+		synchronized (templates) {
+			final BatchStatementTemplate template = templates.get(key);
+			if (template != null) {
+				hits.incrementAndGet();
+				return template;
+			}
+		}
+		misses.incrementAndGet();
+		// Parse outside the lock, a concurrent miss on the same key just parses twice.
+		final BatchStatementTemplate template = BatchStatementTemplate.parse(sql, metaObject);
+		synchronized (templates) {
+			templates.put(key, template);
+		}
+		return template;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public int size() {
+		synchronized (templates) {
+			return templates.size();
+		}
+	}
+}
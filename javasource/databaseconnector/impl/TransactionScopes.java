@@ -0,0 +1,312 @@
+package databaseconnector.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.mendix.core.Core;
+import com.mendix.logging.ILogNode;
+import com.mendix.systemwideinterfaces.core.IContext;
+
+import databaseconnector.interfaces.ConnectionManager;
+
+/**
+ * Keeps the connections of explicit transactions. A transaction pins one pooled
+ * connection to a Mendix context, a JDBC URL and a user name, with autocommit
+ * switched off. Every {@link JdbcConnector} call for the same context, URL and
+ * user reuses that connection until the transaction is committed or rolled
+ * back, so a sequence of statements is atomic and is committed once.
+ * <p>
+ * The connection is only shared with calls on the thread that began the
+ * transaction; the partitions of a partitioned query and asynchronous queries
+ * run on other threads and use connections of their own.
+ * <p>
+ * The timeout set with the JVM property
+ * databaseconnector.Transaction.TimeoutSeconds (600 by default) is a hard limit
+ * on the duration of a transaction, also for multi-step jobs that are still
+ * running: a transaction that is not ended within it is rolled back, once no
+ * statement is running on its connection. The transaction stays known as
+ * expired, so later calls in it fail instead of running outside of it, and
+ * committing it fails. Rolling it back just ends it.
+ */
+public class TransactionScopes {
+	private static final String TIMEOUT_PROPERTY = "databaseconnector.Transaction.TimeoutSeconds";
+
+	private final Map<Key, Scope> scopes = new ConcurrentHashMap<>();
+	private final long timeoutSeconds;
+	private final ILogNode logNode;
+
+	private static final class Holder {
+		private static final TransactionScopes instance = new TransactionScopes(
+				Core.getLogger(TransactionScopes.class.getName()), Long.getLong(TIMEOUT_PROPERTY, 600));
+	}
+
+	public TransactionScopes(final ILogNode logNode, final long timeoutSeconds) {
+		this.logNode = logNode;
+		this.timeoutSeconds = timeoutSeconds;
+	}
+
+	public static TransactionScopes getInstance() {
+		return Holder.instance;
+	}
+
+	public void begin(final IContext context, final String jdbcUrl, final String userName, final String password,
+			final ConnectionManager connectionManager) throws SQLException, DatabaseConnectorException {
+		final Key key = new Key(context, jdbcUrl, userName);
+		final Scope current = scopes.get(key);
+		if (current != null)
+			throw new DatabaseConnectorException(String.format(current.isExpired()
+					? "The transaction on %s for user %s in this context expired, roll it back before beginning another one."
+					: "A transaction on %s for user %s is already active in this context.", jdbcUrl, userName));
+
+		final Connection connection = connectionManager.getConnection(jdbcUrl, userName, password);
+		try {
+			connection.setAutoCommit(false);
+		} catch (SQLException e) {
+			connection.close();
+			throw e;
+		}
+		final Scope scope = new Scope(connection);
+		scopes.put(key, scope);
+		CompletableFuture.runAsync(() -> expire(key, scope),
+				CompletableFuture.delayedExecutor(timeoutSeconds, TimeUnit.SECONDS));
+		if (logNode.isDebugEnabled()) logNode.debug(String.format("Began transaction on %s for user %s", jdbcUrl, userName));
+	}
+
+	public void commit(final IContext context, final String jdbcUrl, final String userName)
+			throws SQLException, DatabaseConnectorException {
+		final Scope scope = remove(context, jdbcUrl, userName);
+		if (scope.end())
+			throw new DatabaseConnectorException(String.format(
+					"The transaction on %s for user %s was rolled back after %d seconds, it was not ended in time. "
+							+ "None of its changes were committed.", jdbcUrl, userName, timeoutSeconds));
+		try {
+			scope.connection.commit();
+		} catch (SQLException e) {
+			rollbackQuietly(scope.connection, e);
+			throw e;
+		} finally {
+			release(scope.connection);
+		}
+		if (logNode.isDebugEnabled()) logNode.debug(String.format("Committed transaction on %s for user %s", jdbcUrl, userName));
+	}
+
+	public void rollback(final IContext context, final String jdbcUrl, final String userName)
+			throws SQLException, DatabaseConnectorException {
+		final Scope scope = remove(context, jdbcUrl, userName);
+		if (scope.end()) {
+			if (logNode.isDebugEnabled()) logNode.debug(String.format("Transaction on %s for user %s was already rolled back after it expired", jdbcUrl, userName));
+			return;
+		}
+		try {
+			scope.connection.rollback();
+		} finally {
+			release(scope.connection);
+		}
+		if (logNode.isDebugEnabled()) logNode.debug(String.format("Rolled back transaction on %s for user %s", jdbcUrl, userName));
+	}
+
+	public boolean isActive(final IContext context, final String jdbcUrl, final String userName) {
+		return context != null && scopes.containsKey(new Key(context, jdbcUrl, userName));
+	}
+
+	/**
+	 * @return the connection of the active transaction, which is not committed,
+	 *         rolled back or closed by its users, or null if there is none for the
+	 *         calling thread
+	 * @throws SQLException if the transaction expired
+	 */
+	public Connection getConnection(final IContext context, final String jdbcUrl, final String userName)
+			throws SQLException {
+		if (context == null) return null;
+		final Scope scope = scopes.get(new Key(context, jdbcUrl, userName));
+		if (scope == null || scope.thread != Thread.currentThread()) return null;
+		if (!scope.lease())
+			throw new SQLException(String.format("The transaction on %s for user %s was rolled back after %d seconds, "
+					+ "it was not ended in time.", jdbcUrl, userName, timeoutSeconds));
+		return share(scope);
+	}
+
+	private Scope remove(final IContext context, final String jdbcUrl, final String userName)
+			throws DatabaseConnectorException {
+		final Scope scope = scopes.remove(new Key(context, jdbcUrl, userName));
+		if (scope == null)
+			throw new DatabaseConnectorException(String.format(
+					"No transaction on %s for user %s is active in this context. It was not begun, already ended, "
+							+ "or rolled back after %d seconds.", jdbcUrl, userName, timeoutSeconds));
+		return scope;
+	}
+
+	/**
+	 * Marks the scope as expired; its connection is rolled back now, or when the
+	 * statement running on it is done. The scope is forgotten after another
+	 * timeout if it is never ended.
+	 */
+	private void expire(final Key key, final Scope scope) {
+		final Boolean idle = scope.expire();
+		if (idle == null) return;
+		logNode.warn(String.format("Rolling back transaction on %s for user %s, it was not ended within %d seconds%s",
+				key.jdbcUrl, key.userName, timeoutSeconds, idle ? "" : ", when its running statement is done"));
+		if (idle) rollbackExpired(scope);
+		CompletableFuture.runAsync(() -> scopes.remove(key, scope),
+				CompletableFuture.delayedExecutor(timeoutSeconds, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Rolls back all transactions, for when the module shuts down. A connection
+	 * with a running statement is rolled back when the statement is done.
+	 */
+	public void shutdown() {
+		for (Map.Entry<Key, Scope> entry : scopes.entrySet()) {
+			if (!scopes.remove(entry.getKey(), entry.getValue())) continue;
+			if (Boolean.TRUE.equals(entry.getValue().expire())) rollbackExpired(entry.getValue());
+		}
+	}
+
+	private void rollbackExpired(final Scope scope) {
+		try {
+			scope.connection.rollback();
+		} catch (SQLException e) {
+			logNode.warn("Could not roll back expired transaction", e);
+		} finally {
+			release(scope.connection);
+		}
+	}
+
+	private void release(final Connection connection) {
+		try {
+			connection.setAutoCommit(true);
+		} catch (SQLException e) {
+			logNode.warn("Could not restore autocommit of transaction connection", e);
+		}
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			logNode.warn("Could not return transaction connection to the pool", e);
+		}
+	}
+
+	private void rollbackQuietly(final Connection connection, final Exception cause) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * The connector commits, rolls back and closes the connections it gets when it
+	 * is done with a statement; inside a transaction that is left to the
+	 * transaction, so those calls are ignored on the shared connection. Closing it
+	 * ends the lease of the connection.
+	 */
+	private Connection share(final Scope scope) {
+		final Connection connection = scope.connection;
+		final AtomicBoolean closed = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "close":
+						if (closed.compareAndSet(false, true) && scope.release()) rollbackExpired(scope);
+						return null;
+					case "isClosed":
+						return closed.get() || connection.isClosed();
+					case "commit":
+					case "setAutoCommit":
+						return null;
+					case "rollback":
+						if (args == null) return null;
+						break;
+					}
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+
+	private static final class Scope {
+		private final Connection connection;
+		private final Thread thread = Thread.currentThread();
+		private int leases;
+		private boolean expired;
+		private boolean ended;
+
+		private Scope(final Connection connection) {
+			this.connection = connection;
+		}
+
+		private synchronized boolean isExpired() {
+			return expired;
+		}
+
+		/**
+		 * @return false if the transaction expired
+		 */
+		private synchronized boolean lease() {
+			if (expired) return false;
+			leases++;
+			return true;
+		}
+
+		/**
+		 * @return whether the connection must be rolled back now, because the
+		 *         transaction expired while it was leased
+		 */
+		private synchronized boolean release() {
+			return --leases == 0 && expired;
+		}
+
+		/**
+		 * @return null if the transaction already ended, otherwise whether the
+		 *         connection can be rolled back right away
+		 */
+		private synchronized Boolean expire() {
+			if (ended || expired) return null;
+			expired = true;
+			return leases == 0;
+		}
+
+		/**
+		 * @return whether the transaction expired before it was ended
+		 */
+		private synchronized boolean end() {
+			ended = true;
+			return expired;
+		}
+	}
+
+	// Contexts are compared by identity, they do not define equality
+	private static final class Key {
+		private final IContext context;
+		private final String jdbcUrl;
+		private final String userName;
+
+		private Key(final IContext context, final String jdbcUrl, final String userName) {
+			this.context = context;
+			this.jdbcUrl = jdbcUrl;
+			this.userName = userName;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) return false;
+			final Key other = (Key) obj;
+			return context == other.context && Objects.equals(jdbcUrl, other.jdbcUrl)
+					&& Objects.equals(userName, other.userName);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(context), jdbcUrl, userName);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package databaseconnector.impl.callablestatement;
+
+import databaseconnector.interfaces.RefCursorPageConsumer;
+
+/**
+ * An output parameter whose value can be mapped onto objects of a target
+ * entity with an {@link OutputMapping}, instead of onto Parameter NPEs.
+ */
+interface MappableOutput {
+	/**
+	 * Passes the mapped objects to the consumer instead of storing them in this
+	 * parameter.
+	 */
+	void setOutputMapping(OutputMapping outputMapping, RefCursorPageConsumer consumer);
+}
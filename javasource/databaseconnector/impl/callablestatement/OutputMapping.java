@@ -0,0 +1,182 @@
+package databaseconnector.impl.callablestatement;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Struct;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import com.mendix.core.Core;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+import com.mendix.systemwideinterfaces.core.meta.IMetaObject;
+import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive;
+import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive.PrimitiveType;
+
+import databaseconnector.impl.DatabaseConnectorException;
+
+/**
+ * Maps the values of array, struct and cursor output parameters onto objects of
+ * an entity chosen by the caller, instead of onto a tree of Parameter NPEs with
+ * one object per value.
+ * <p>
+ * Struct attributes and array elements have no names, so they are mapped by
+ * position onto the given attribute names; an array of simple values needs one
+ * attribute name. Cursor columns are mapped by position too if attribute names
+ * are given, and by column name otherwise; either way they are read by the type
+ * of their attribute. The attribute types are resolved once, when the mapping is
+ * created. Values that do not fit their attribute, such as a number out of the
+ * range of an Integer, are rejected.
+ */
+public class OutputMapping {
+	private final IMetaObject metaObject;
+	private final String[] attributeNames;
+	private final PrimitiveType[] attributeTypes;
+
+	/**
+	 * @param attributeNames the attributes values are mapped onto by position, or
+	 *                       null to map cursor columns by name
+	 */
+	public OutputMapping(final IMetaObject metaObject, final String[] attributeNames)
+			throws DatabaseConnectorException {
+		this.metaObject = metaObject;
+		this.attributeNames = attributeNames;
+		if (attributeNames == null) {
+			this.attributeTypes = null;
+			return;
+		}
+		this.attributeTypes = new PrimitiveType[attributeNames.length];
+		for (int i = 0; i < attributeNames.length; i++) {
+			final IMetaPrimitive metaPrimitive = metaObject.getMetaPrimitive(attributeNames[i]);
+			if (metaPrimitive == null) {
+				throw new DatabaseConnectorException(String.format("The entity type '%s' does not contain the attribute '%s'.",
+						metaObject.getName(), attributeNames[i]));
+			}
+			if (metaPrimitive.getType() == PrimitiveType.HashString) {
+				throw new DatabaseConnectorException(String.format(
+						"Attribute type Hashed String for attribute '%1$s' on entity '%2$s' is not supported, "
+								+ "please use attribute type 'String' instead",
+						attributeNames[i], metaObject.getName()));
+			}
+			this.attributeTypes[i] = metaPrimitive.getType();
+		}
+	}
+
+	public IMetaObject getMetaObject() {
+		return metaObject;
+	}
+
+	public boolean isPositional() {
+		return attributeNames != null;
+	}
+
+	/**
+	 * @return the attributes values are mapped onto by position, or null
+	 */
+	public String[] getAttributeNames() {
+		return attributeNames;
+	}
+
+	/**
+	 * Creates an object for a struct, or for a single value.
+	 */
+	IMendixObject map(final IContext context, final Object value) throws SQLException, DatabaseConnectorException {
+		return map(context, value instanceof Struct ? ((Struct) value).getAttributes() : new Object[] { value });
+	}
+
+	/**
+	 * Creates an object with the given values, in the order of the attribute names.
+	 */
+	IMendixObject map(final IContext context, final Object[] values) throws SQLException, DatabaseConnectorException {
+		if (values.length > attributeNames.length) {
+			throw new DatabaseConnectorException(String.format(
+					"Output value has %d fields, but only %d attributes of entity '%s' are mapped.", values.length,
+					attributeNames.length, metaObject.getName()));
+		}
+		final IMendixObject obj = Core.instantiate(context, metaObject.getName());
+		for (int i = 0; i < values.length; i++) {
+			try {
+				obj.setValue(context, attributeNames[i], toAttributeValue(attributeTypes[i], values[i]));
+			} catch (ClassCastException | ArithmeticException | NumberFormatException e) {
+				throw new DatabaseConnectorException(String.format("Value %s of type %s cannot be mapped onto attribute '%s' of type %s.",
+						values[i], values[i].getClass().getName(), attributeNames[i], attributeTypes[i]), e);
+			}
+		}
+		return obj;
+	}
+
+	private static Object toAttributeValue(final PrimitiveType type, final Object value)
+			throws SQLException, DatabaseConnectorException {
+		if (value == null) return null;
+		switch (type) {
+		case Integer:
+			return Math.toIntExact(toLong(value));
+		case AutoNumber:
+		case Long:
+			return toLong(value);
+		case Decimal:
+			return value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+		case Boolean:
+			return value instanceof Number ? ((Number) value).intValue() != 0 : value;
+		case DateTime:
+			return toDate(value);
+		case Enum:
+		case String:
+			return value instanceof Clob ? ((Clob) value).getSubString(1, (int) ((Clob) value).length()) : value.toString();
+		case Binary:
+			return value instanceof Blob ? ((Blob) value).getBinaryStream() : new ByteArrayInputStream((byte[]) value);
+		default:
+			throw new DatabaseConnectorException(String.format("Attribute type %s is not supported.", type));
+		}
+	}
+
+	// Fractions are dropped like ResultSet.getLong does, values out of range are rejected
+	private static long toLong(final Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).longValue();
+		}
+		return new BigDecimal(value.toString()).setScale(0, RoundingMode.DOWN).longValueExact();
+	}
+
+	/**
+	 * Date and time values without a time zone are taken as UTC, like the UTC
+	 * calendar of {@link databaseconnector.impl.ResultSetReader} does for columns.
+	 * Vendor types, such as oracle.sql.TIMESTAMP in structs, are converted with
+	 * their timestampValue method.
+	 */
+	private static Date toDate(final Object value) throws SQLException {
+		if (value instanceof Timestamp) {
+			return Date.from(((Timestamp) value).toLocalDateTime().toInstant(ZoneOffset.UTC));
+		} else if (value instanceof java.sql.Date) {
+			return Date.from(((java.sql.Date) value).toLocalDate().atStartOfDay().toInstant(ZoneOffset.UTC));
+		} else if (value instanceof Date) {
+			return new Date(((Date) value).getTime());
+		} else if (value instanceof LocalDateTime) {
+			return Date.from(((LocalDateTime) value).toInstant(ZoneOffset.UTC));
+		} else if (value instanceof LocalDate) {
+			return Date.from(((LocalDate) value).atStartOfDay().toInstant(ZoneOffset.UTC));
+		} else if (value instanceof OffsetDateTime) {
+			return Date.from(((OffsetDateTime) value).toInstant());
+		} else if (value instanceof Instant) {
+			return Date.from((Instant) value);
+		}
+		try {
+			return toDate(value.getClass().getMethod("timestampValue").invoke(value));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new ClassCastException(value.getClass().getName() + " is not a date and time value");
+		} catch (InvocationTargetException e) {
+			throw e.getCause() instanceof SQLException ? (SQLException) e.getCause()
+					: new SQLException("Could not read date and time value " + value, e.getCause());
+		}
+	}
+}
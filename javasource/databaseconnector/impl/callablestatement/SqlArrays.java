@@ -0,0 +1,62 @@
+package databaseconnector.impl.callablestatement;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Creates SQL arrays from plain Java values, without a Mendix object per
+ * element.
+ * <p>
+ * Its only caller is {@link SqlParameterList}: callable statements receive
+ * their parameters as Mendix objects, so the values come from an input list
+ * whose members are all primitive values (strings, numbers, dates). Lists of
+ * structs or of other lists still get a {@link SqlParameter} per member.
+ * <p>
+ * Oracle does not implement {@link Connection#createArrayOf(String, Object[])};
+ * its own createOracleArray method is used instead when the driver is on the
+ * class path. That method is looked up once and kept as a {@link MethodHandle},
+ * so creating an array does not go through reflection.
+ */
+public final class SqlArrays {
+	private static final Class<?> oracleConnectionClass;
+	private static final MethodHandle createOracleArray;
+	static {
+		Class<?> clazz;
+		MethodHandle handle;
+		try {
+			clazz = Class.forName("oracle.jdbc.OracleConnection");
+			handle = MethodHandles.publicLookup()
+					.unreflect(clazz.getMethod("createOracleArray", String.class, Object.class))
+					.asType(MethodType.methodType(Array.class, Object.class, String.class, Object.class));
+		} catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | SecurityException e) {
+			clazz = null;
+			handle = null;
+		}
+		oracleConnectionClass = clazz;
+		createOracleArray = handle;
+	}
+
+	private SqlArrays() {
+	}
+
+	public static Array createArray(final Connection connection, final String sqlTypeName, final Object[] values)
+			throws SQLException {
+		if (oracleConnectionClass != null && connection.isWrapperFor(oracleConnectionClass)) {
+			try {
+				return (Array) createOracleArray.invokeExact((Object) connection.unwrap(oracleConnectionClass),
+						sqlTypeName, (Object) values);
+			} catch (SQLException | RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				// createOracleArray declares no other checked exceptions
+				throw new UndeclaredThrowableException(e);
+			}
+		}
+		return connection.createArrayOf(sqlTypeName, values);
+	}
+}
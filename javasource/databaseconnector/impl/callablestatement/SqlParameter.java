@@ -156,10 +156,8 @@ public abstract class SqlParameter implements Comparable<SqlParameter> {
 			ret = new SqlParameterObject(context, mendixObject, fields);
 			break;
 		case ParameterList.entityName:
-			List<SqlParameter> elements = Core
-					.retrieveByPath(context, mendixObject, ParameterList.MemberNames.ParameterList_Parameter.toString())
-					.stream().map(p -> initialize(context, p)).sorted().collect(Collectors.toList());
-			ret = new SqlParameterList(context, mendixObject, elements);
+			ret = SqlParameterList.create(context, mendixObject, Core.retrieveByPath(context, mendixObject,
+					ParameterList.MemberNames.ParameterList_Parameter.toString()));
 			break;
 		case ParameterRefCursor.entityName:
 			ret = new SqlParameterRefCursor(context, mendixObject);
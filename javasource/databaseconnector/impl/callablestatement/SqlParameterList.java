@@ -1,11 +1,12 @@
 package databaseconnector.impl.callablestatement;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.sql.Array;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -15,8 +16,14 @@ import com.mendix.systemwideinterfaces.core.IContext;
 import com.mendix.systemwideinterfaces.core.IMendixObject;
 
 import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.interfaces.RefCursorPageConsumer;
+import databaseconnector.proxies.Parameter;
+import databaseconnector.proxies.ParameterDatetime;
+import databaseconnector.proxies.ParameterDecimal;
 import databaseconnector.proxies.ParameterList;
+import databaseconnector.proxies.ParameterLong;
 import databaseconnector.proxies.ParameterMode;
+import databaseconnector.proxies.ParameterString;
 
 /**
  * Representation of an array.
@@ -26,39 +33,32 @@ import databaseconnector.proxies.ParameterMode;
  * a unique position, indicating its place in the list.
  * 
  * For INPUT or INOUT parameter mode, the list can only be used by position.
+ * 
+ * An input list of primitive values (strings, numbers, dates) is read straight
+ * from the attributes of its members into an array of values, without a
+ * {@link SqlParameter} per member; see {@link #create(IContext, IMendixObject, List)}.
+ * This is the only fast path: there is no entry point for a plain Java list,
+ * and a list with any other member (a struct or a list) is read member by
+ * member.
+ * An output list is mapped onto objects of a target entity, one per element,
+ * when an {@link OutputMapping} is set.
  */
-public class SqlParameterList extends SqlParameter {
+public class SqlParameterList extends SqlParameter implements MappableOutput {
 	private final static int SQL_TYPE = java.sql.Types.ARRAY;
-	private List<SqlParameter> elements;
+	private final static Set<String> PRIMITIVE_ELEMENT_TYPES = Set.of(ParameterString.entityName,
+			ParameterLong.entityName, ParameterDecimal.entityName, ParameterDatetime.entityName);
 
-	/**
-	 * For Oracle we see if the driver is loaded and if call its special Array method instead of the
-	 * usual JDBC standard one. See {@link #createArray(Connection)} for the uses of this static members.
-	 */
-	private final static Class<?> oracleClass;
-	private final static Method createOracleArray;
-	static {
-		Class<?> clazz;
-		Method method;
-		try {
-			clazz = Class.forName("oracle.jdbc.OracleConnection");
-			method = clazz.getMethod("createOracleArray", String.class, Object.class);
-		} catch (ClassNotFoundException | NoSuchMethodException | SecurityException e) {
-			clazz = null;
-			method = null;
-		}
-		oracleClass = clazz;
-		createOracleArray = method;
-	}
+	private List<SqlParameter> elements;
+	private Object[] inputValues;
+	private OutputMapping outputMapping;
+	private RefCursorPageConsumer outputConsumer;
 
 	public SqlParameterList(final IContext context, IMendixObject mendixObject, List<SqlParameter> elements) {
 		super(context, mendixObject);
 		this.elements = elements;
 
 		if (!this.getParameterMode().equals(ParameterMode.OUTPUT)) {
-			if (this.getPosition() == null || this.getPosition() == 0) {
-				throw new IllegalArgumentException("List parameter cannot be used as INPUT or INOUT without a position.");
-			}
+			checkInputPosition();
 
 			Set<Integer> positions = new HashSet<Integer>();
 			for (SqlParameter elem : elements) {
@@ -75,6 +75,63 @@ public class SqlParameterList extends SqlParameter {
 		}
 	}
 
+	/**
+	 * Creates an INPUT or INOUT list from values ordered by position.
+	 */
+	public SqlParameterList(final IContext context, IMendixObject mendixObject, Object[] inputValues) {
+		super(context, mendixObject);
+		this.elements = new ArrayList<SqlParameter>();
+		this.inputValues = inputValues;
+		checkInputPosition();
+	}
+
+	/**
+	 * Creates a list parameter from its NPE and the NPEs of its members. Members
+	 * of an input list that are all primitive values are read directly into an
+	 * array of values.
+	 */
+	static SqlParameterList create(final IContext context, IMendixObject mendixObject, List<IMendixObject> elementObjects) {
+		final Object mode = mendixObject.getValue(context, Parameter.MemberNames.ParameterMode.toString());
+		if (!ParameterMode.OUTPUT.toString().equals(mode)
+				&& elementObjects.stream().allMatch(e -> PRIMITIVE_ELEMENT_TYPES.contains(e.getType()))) {
+			return new SqlParameterList(context, mendixObject, readPrimitiveValues(context, elementObjects));
+		}
+		List<SqlParameter> elements = elementObjects.stream().map(p -> SqlParameter.initialize(context, p)).sorted()
+				.collect(Collectors.toList());
+		return new SqlParameterList(context, mendixObject, elements);
+	}
+
+	private static Object[] readPrimitiveValues(final IContext context, List<IMendixObject> elementObjects) {
+		final String positionAttribute = Parameter.MemberNames.Position.toString();
+		final int count = elementObjects.size();
+		final int[] positions = new int[count];
+		final Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			Integer position = elementObjects.get(i).getValue(context, positionAttribute);
+			if (position == null || position == 0) {
+				throw new IllegalArgumentException("Missing position information for element in list.");
+			}
+			positions[i] = position;
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt(i -> positions[i]));
+
+		final Object[] values = new Object[count];
+		for (int i = 0; i < count; i++) {
+			if (i > 0 && positions[order[i]] == positions[order[i - 1]]) {
+				throw new IllegalArgumentException(String.format("Duplicate element at position %d for list parameter.", positions[order[i]]));
+			}
+			values[i] = elementObjects.get(order[i]).getValue(context, "Value");
+		}
+		return values;
+	}
+
+	private void checkInputPosition() {
+		if (this.getPosition() == null || this.getPosition() == 0) {
+			throw new IllegalArgumentException("List parameter cannot be used as INPUT or INOUT without a position.");
+		}
+	}
+
 	@Override
 	protected void prepareInput(CallableStatement cStatement) throws SQLException, DatabaseConnectorException {
 		Array inputArray = createArray(cStatement.getConnection());
@@ -89,16 +146,9 @@ public class SqlParameterList extends SqlParameter {
 
 	private Array createArray(Connection connection) throws SQLException, DatabaseConnectorException {
 		String sqlTypeName = ((ParameterList) this.parameterObject).getSQLTypeName();
-		Object[] attrVals = this.elements.stream().map(SqlParameter::getValue).toArray();
-
-		if (oracleClass != null && connection.isWrapperFor(oracleClass)) {
-			try {
-				return (Array) createOracleArray.invoke(connection.unwrap(oracleClass), sqlTypeName, attrVals);
-			} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-				throw new DatabaseConnectorException("Unable to create array structure for input parameter with this Oracle Connection.", e);
-			}
-		}
-		return connection.createArrayOf(sqlTypeName, attrVals);
+		Object[] attrVals = this.inputValues != null ? this.inputValues
+				: this.elements.stream().map(SqlParameter::getValue).toArray();
+		return SqlArrays.createArray(connection, sqlTypeName, attrVals);
 	}
 
 	@Override
@@ -121,12 +171,35 @@ public class SqlParameterList extends SqlParameter {
 			} else {
 				objStruct = cStatement.getArray(this.getPosition());
 			}
-			this.setValue(objStruct);
+			if (this.outputMapping != null) {
+				acceptMapped(objStruct);
+			} else {
+				this.setValue(objStruct);
+			}
 		} finally {
 			if (objStruct != null) objStruct.free();
 		}
 	}
 
+	@Override
+	public void setOutputMapping(OutputMapping outputMapping, RefCursorPageConsumer consumer) {
+		this.outputMapping = outputMapping;
+		this.outputConsumer = consumer;
+	}
+
+	private void acceptMapped(Array array) throws SQLException, DatabaseConnectorException {
+		if (!this.outputMapping.isPositional()) {
+			throw new DatabaseConnectorException("List output parameters can only be mapped by attribute names.");
+		}
+		IContext context = this.parameterObject.getContext();
+		Object[] values = array == null ? new Object[0] : (Object[]) array.getArray();
+		List<IMendixObject> objects = new ArrayList<IMendixObject>(values.length);
+		for (Object value : values) {
+			objects.add(this.outputMapping.map(context, value));
+		}
+		outputConsumer.accept(this.getNameOrPosition(), objects);
+	}
+
 	@Override
 	List<SqlParameter> getValue() {
 		return this.elements;
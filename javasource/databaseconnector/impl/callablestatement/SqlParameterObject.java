@@ -4,6 +4,7 @@ import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Struct;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -13,6 +14,7 @@ import com.mendix.systemwideinterfaces.core.IContext;
 import com.mendix.systemwideinterfaces.core.IMendixObject;
 
 import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.interfaces.RefCursorPageConsumer;
 import databaseconnector.proxies.ParameterObject;
 
 /**
@@ -24,12 +26,16 @@ import databaseconnector.proxies.ParameterObject;
  * the database.
  * 
  * If used as OUTPUT, the <code>ParameterObject_Parameter</code> association
- * may be left empty and we will attempt to guess the resulting types.
+ * may be left empty and we will attempt to guess the resulting types. With an
+ * {@link OutputMapping}, the output is mapped onto one object of the target
+ * entity instead.
  */
-public class SqlParameterObject extends SqlParameter {
+public class SqlParameterObject extends SqlParameter implements MappableOutput {
 	private final static int SQL_TYPE = java.sql.Types.STRUCT;
 	
 	private List<SqlParameter> objectFields;
+	private OutputMapping outputMapping;
+	private RefCursorPageConsumer outputConsumer;
 
 	public SqlParameterObject(final IContext context, IMendixObject mendixObject, List<SqlParameter> objectFields) {
 		super(context, mendixObject);
@@ -57,7 +63,21 @@ public class SqlParameterObject extends SqlParameter {
 		} else {
 			objStruct = (Struct) cStatement.getObject(this.getPosition());
 		}
-		this.setValue(objStruct);
+		if (this.outputMapping != null) {
+			if (!this.outputMapping.isPositional()) {
+				throw new DatabaseConnectorException("Object output parameters can only be mapped by attribute names.");
+			}
+			outputConsumer.accept(this.getNameOrPosition(), objStruct == null ? Collections.emptyList()
+					: Collections.singletonList(this.outputMapping.map(this.parameterObject.getContext(), objStruct)));
+		} else {
+			this.setValue(objStruct);
+		}
+	}
+
+	@Override
+	public void setOutputMapping(OutputMapping outputMapping, RefCursorPageConsumer consumer) {
+		this.outputMapping = outputMapping;
+		this.outputConsumer = consumer;
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package databaseconnector.impl.callablestatement;
 
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +13,8 @@ import com.mendix.systemwideinterfaces.core.IContext;
 import com.mendix.systemwideinterfaces.core.IMendixObject;
 
 import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.impl.ResultSetReader;
+import databaseconnector.interfaces.RefCursorPageConsumer;
 import databaseconnector.proxies.Parameter;
 import databaseconnector.proxies.ParameterMode;
 import databaseconnector.proxies.ParameterObject;
@@ -22,12 +25,18 @@ import databaseconnector.proxies.ParameterRefCursor;
  * 
  * Cannot be used as input (INPUT or INOUT).
  * 
- * The current implementation reads all data at once, and there is no pagination.
- * In effect, this cursor behaves as a ParameterList.
+ * By default all data is read at once, and the cursor behaves as a
+ * ParameterList. When a {@link RefCursorPageConsumer} is set, the rows are
+ * handed to it in pages instead, and only one page is held in memory. With an
+ * {@link OutputMapping}, every row is mapped onto one object of the target
+ * entity instead of a ParameterObject with a Parameter per column.
  */
-public class SqlParameterRefCursor extends SqlParameter {
+public class SqlParameterRefCursor extends SqlParameter implements MappableOutput {
 	private final static int SQL_TYPE = java.sql.Types.REF_CURSOR;
 	private List<SqlParameterObject> result = new ArrayList<SqlParameterObject>();
+	private RefCursorPageConsumer pageConsumer;
+	private int pageSize;
+	private OutputMapping outputMapping;
 
 	public SqlParameterRefCursor(final IContext context, IMendixObject mendixObject) {
 		super(context, mendixObject);
@@ -51,20 +60,54 @@ public class SqlParameterRefCursor extends SqlParameter {
 		}
 	}
 
+	/**
+	 * Switches this cursor to paged mode: rows are passed to the consumer in pages
+	 * of pageSize instead of being collected in this parameter.
+	 */
+	public void setPageConsumer(final int pageSize, final RefCursorPageConsumer pageConsumer) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1, but was " + pageSize + ".");
+		}
+		this.pageSize = pageSize;
+		this.pageConsumer = pageConsumer;
+	}
+
+	@Override
+	public void setOutputMapping(OutputMapping outputMapping, RefCursorPageConsumer consumer) {
+		this.outputMapping = outputMapping;
+		this.pageConsumer = consumer;
+	}
+
 	@Override
 	protected void retrieveResult(CallableStatement cStatement) throws SQLException, DatabaseConnectorException {
 		IContext context = this.parameterObject.getContext();
+		if (this.outputMapping != null) {
+			try (ResultSet rs = retrieveResultSet(cStatement)) {
+				retrieveMapped(context, rs);
+			}
+			return;
+		}
 		try (ResultSet rs = retrieveResultSet(cStatement)) {
-			int numColumns = rs.getMetaData().getColumnCount(); 
+			// Read the column metadata once instead of for every field of every row
+			ResultSetMetaData metaData = rs.getMetaData();
+			int numColumns = metaData.getColumnCount();
+			String[] columnNames = new String[numColumns];
+			int[] typeHints = new int[numColumns];
+			for (int column = 1; column <= numColumns; column++) {
+				columnNames[column - 1] = metaData.getColumnLabel(column);
+				typeHints[column - 1] = metaData.getColumnType(column);
+			}
+			if (pageConsumer != null) {
+				rs.setFetchSize(pageSize);
+			}
 
+			List<SqlParameterObject> page = new ArrayList<SqlParameterObject>();
 			int index = 0;
 			while (rs.next()) {
 				List<SqlParameter> fields = new ArrayList<SqlParameter>(numColumns);
 				for (int column = 1; column <= numColumns; column++) {
-					String columnName = rs.getMetaData().getColumnLabel(column);
-					int typeHint = rs.getMetaData().getColumnType(column);
-					SqlParameter newParameter = SqlParameter.createParameterFromValue(context, this.getParameterMode(), column, rs.getObject(column), typeHint);
-					newParameter.parameterObject.setName(columnName);
+					SqlParameter newParameter = SqlParameter.createParameterFromValue(context, this.getParameterMode(), column, rs.getObject(column), typeHints[column - 1]);
+					newParameter.parameterObject.setName(columnNames[column - 1]);
 					fields.add(newParameter);
 				}
 
@@ -78,9 +121,20 @@ public class SqlParameterRefCursor extends SqlParameter {
 				List<Parameter> fieldMxObjects = fields.stream().map(p -> p.parameterObject).collect(Collectors.toList());
 				((ParameterObject) valueSqlParameter.parameterObject).setParameterObject_Parameter(fieldMxObjects);
 
-				this.result.add(valueSqlParameter);
+				if (pageConsumer == null) {
+					this.result.add(valueSqlParameter);
+				} else {
+					page.add(valueSqlParameter);
+					if (page.size() == pageSize) {
+						acceptPage(page);
+						page = new ArrayList<SqlParameterObject>(pageSize);
+					}
+				}
 				index++;
 			}
+			if (!page.isEmpty()) {
+				acceptPage(page);
+			}
 		}
 		
 		// Point the newly loaded data to this object to this new object
@@ -88,6 +142,37 @@ public class SqlParameterRefCursor extends SqlParameter {
 		((ParameterRefCursor) this.parameterObject).setParameterRefCursor_Parameter(resultMxObject);
 	}
 
+	// Columns are read by the type of their attribute, bound by name or by the position in the mapping
+	private void retrieveMapped(IContext context, ResultSet rs) throws SQLException, DatabaseConnectorException {
+		String entityName = this.outputMapping.getMetaObject().getName();
+		ResultSetReader reader = this.outputMapping.isPositional()
+				? ResultSetReader.byPosition(rs, this.outputMapping.getMetaObject(), this.outputMapping.getAttributeNames())
+				: new ResultSetReader(rs, this.outputMapping.getMetaObject());
+		int size = pageSize > 0 ? pageSize : Integer.MAX_VALUE;
+		if (pageSize > 0) {
+			rs.setFetchSize(pageSize);
+		}
+
+		List<IMendixObject> page = new ArrayList<IMendixObject>();
+		while (rs.next()) {
+			IMendixObject obj = Core.instantiate(context, entityName);
+			reader.readRow(context, obj);
+			page.add(obj);
+			if (page.size() == size) {
+				pageConsumer.accept(this.getNameOrPosition(), page);
+				page = new ArrayList<IMendixObject>();
+			}
+		}
+		if (!page.isEmpty()) {
+			pageConsumer.accept(this.getNameOrPosition(), page);
+		}
+	}
+
+	private void acceptPage(List<SqlParameterObject> page) throws DatabaseConnectorException {
+		pageConsumer.accept(this.getNameOrPosition(),
+				page.stream().map(p -> p.parameterObject.getMendixObject()).collect(Collectors.toList()));
+	}
+
 	private ResultSet retrieveResultSet(CallableStatement cStatement) throws SQLException {
 		if (this.isNameDefined()) {
 			return cStatement.getObject(this.getName(), ResultSet.class);
@@ -2,9 +2,11 @@ package databaseconnector.impl.callablestatement;
 
 import java.sql.CallableStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import databaseconnector.impl.DatabaseConnectorException;
+import databaseconnector.interfaces.RefCursorPageConsumer;
 import databaseconnector.proxies.ParameterMode;
 
 /**
@@ -25,6 +27,10 @@ public class StatementWrapper implements AutoCloseable {
 		this.parameters = parameters;
 	}
 
+	public CallableStatement getStatement() {
+		return this.cStatement;
+	}
+
 	public void execute() throws SQLException, DatabaseConnectorException {
 		this.cStatement.execute();
 
@@ -35,6 +41,66 @@ public class StatementWrapper implements AutoCloseable {
 		}
 	}
 
+	/**
+	 * Executes the statement, passing the rows of RefCursor output parameters to
+	 * the consumer in pages instead of loading them into the parameters.
+	 */
+	public void execute(final int pageSize, final RefCursorPageConsumer pageConsumer)
+			throws SQLException, DatabaseConnectorException {
+		for (SqlParameter p : this.parameters) {
+			if (p instanceof SqlParameterRefCursor) {
+				((SqlParameterRefCursor) p).setPageConsumer(pageSize, pageConsumer);
+			}
+		}
+		execute();
+	}
+
+	/**
+	 * Executes the statement, mapping one array, struct or RefCursor output
+	 * parameter onto objects of the entity of outputMapping. The objects are passed
+	 * to the consumer, cursor rows in pages of pageSize. Other output parameters
+	 * are retrieved as usual.
+	 *
+	 * @param outputParameter the name or position of the output parameter to map,
+	 *                        or empty if the statement has only one that can be
+	 *                        mapped
+	 */
+	public void execute(final OutputMapping outputMapping, final String outputParameter, final int pageSize,
+			final RefCursorPageConsumer consumer) throws SQLException, DatabaseConnectorException {
+		final SqlParameter output = findMappableOutput(outputParameter);
+		if (output instanceof SqlParameterRefCursor) {
+			((SqlParameterRefCursor) output).setPageConsumer(pageSize, consumer);
+		}
+		((MappableOutput) output).setOutputMapping(outputMapping, consumer);
+		execute();
+	}
+
+	private SqlParameter findMappableOutput(final String outputParameter) throws DatabaseConnectorException {
+		final List<SqlParameter> outputs = new ArrayList<>();
+		for (SqlParameter p : this.parameters) {
+			if (p instanceof MappableOutput
+					&& (p.getParameterMode().equals(ParameterMode.OUTPUT) || p.getParameterMode().equals(ParameterMode.INOUT))) {
+				outputs.add(p);
+			}
+		}
+		if (outputParameter == null || outputParameter.isBlank()) {
+			if (outputs.size() != 1) {
+				throw new DatabaseConnectorException(String.format(
+						"The statement has %d array, object or cursor output parameters, specify the one to map.",
+						outputs.size()));
+			}
+			return outputs.get(0);
+		}
+		for (SqlParameter p : outputs) {
+			if (outputParameter.trim().equalsIgnoreCase(p.getNameOrPosition())
+					|| outputParameter.trim().equals(String.valueOf(p.getPosition()))) {
+				return p;
+			}
+		}
+		throw new DatabaseConnectorException(String.format(
+				"The statement has no array, object or cursor output parameter '%s'.", outputParameter));
+	}
+
 	@Override
 	public void close() throws SQLException {
 		this.cStatement.close();
@@ -2,7 +2,42 @@ package databaseconnector.interfaces;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
+
+import databaseconnector.impl.PoolMetricsTracker;
+import databaseconnector.impl.PoolSettings;
+import databaseconnector.impl.ReadReplicas;
 
 public interface ConnectionManager {
 	Connection getConnection(final String jdbcUrl, final String userName, final String password) throws SQLException;
+
+	/**
+	 * Gets a connection for a query that only reads: from one of the read replicas
+	 * of the JDBC URL if it has any, and otherwise from the JDBC URL itself.
+	 */
+	Connection getReadConnection(final String jdbcUrl, final String userName, final String password) throws SQLException;
+
+	/**
+	 * Picks the read replica that {@link #getReadConnection} would connect to, so
+	 * that several queries can read from the same one.
+	 *
+	 * @return the JDBC URL of the replica, or jdbcUrl itself if it has none
+	 *         available
+	 */
+	String pinReadReplica(final String jdbcUrl, final String userName, final String password) throws SQLException;
+
+	/**
+	 * Sets the read replicas of a JDBC URL, or removes them if replicas is null.
+	 */
+	void setReadReplicas(final String jdbcUrl, final ReadReplicas replicas);
+
+	/**
+	 * Sets the pool settings for a JDBC URL, and applies them to the pools for that
+	 * URL that are already running.
+	 */
+	void setPoolSettings(final String jdbcUrl, final PoolSettings settings);
+
+	Collection<PoolMetricsTracker> getPoolMetrics();
+
+	void shutdown();
 }
@@ -0,0 +1,11 @@
+package databaseconnector.interfaces;
+
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+
+import databaseconnector.impl.DatabaseConnectorException;
+
+import java.util.List;
+
+public interface ObjectBatchConsumer {
+	void accept(final List<IMendixObject> batch) throws DatabaseConnectorException;
+}
@@ -10,4 +10,12 @@ public interface PreparedStatementCreator {
 	PreparedStatement create(String query, Connection connection) throws SQLException;
 
 	PreparedStatement create(IStringTemplate sql, Connection connection) throws SQLException, IllegalArgumentException;
+
+	/**
+	 * Creates a forward-only, read-only statement for a query. A fetch size of 0
+	 * leaves the driver default (or the one configured in the JDBC URL) in place.
+	 */
+	PreparedStatement createQuery(String query, Connection connection, int fetchSize) throws SQLException;
+
+	PreparedStatement createQuery(IStringTemplate sql, Connection connection, int fetchSize) throws SQLException, IllegalArgumentException;
 }
@@ -0,0 +1,16 @@
+package databaseconnector.interfaces;
+
+import java.util.List;
+
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+
+import databaseconnector.impl.DatabaseConnectorException;
+
+/**
+ * Receives the rows of a RefCursor output parameter one page at a time, as
+ * ParameterObject instances, or as objects of the target entity when the
+ * outputs are mapped. The page is not kept after it has been accepted.
+ */
+public interface RefCursorPageConsumer {
+	void accept(final String nameOrPosition, final List<IMendixObject> page) throws DatabaseConnectorException;
+}
@@ -0,0 +1,104 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package dataimporter.actions;
+
+import com.mendix.core.Core;
+import com.mendix.core.CoreException;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+import com.mendix.webui.CustomJavaAction;
+import dataimporter.implementation.service.ImportJobExecutor;
+import dataimporter.implementation.service.MappingTemplateParser;
+import java.nio.file.Files;
+import java.util.Locale;
+
+/**
+ * Queues the import of an excel file on a bounded worker pool and returns immediately with the id of the
+ * import job. The imported objects are committed by the job, so the entity must be persistable. They are committed
+ * in batches of 1000 rows while the file is read, each batch in its own transaction; if the import fails, the
+ * batches committed before the failure are kept.
+ * 
+ * Imports are queued per user (or per template), and the queues share the workers fairly, so small imports
+ * are not held up by another user's large files.
+ * 
+ * The job runs in a new context of the current session, with the same entity access as DataImport.
+ * 
+ * Use GetImportJobStatus to poll the status, progress and error of the job.
+ * 
+ * @param ExcelFile The excel file to import.
+ * 
+ * @param MappingTemplate The mapping template, as used by DataImport.
+ * 
+ * @param Entity The entity the rows are imported into.
+ * 
+ * @return The id of the import job.
+ */
+public class DataImportAsync extends CustomJavaAction<java.lang.String>
+{
+	/** @deprecated use ExcelFile.getMendixObject() instead. */
+	@java.lang.Deprecated(forRemoval = true)
+	private final IMendixObject __ExcelFile;
+	private final system.proxies.FileDocument ExcelFile;
+	private final java.lang.String MappingTemplate;
+	private final java.lang.String Entity;
+
+	public DataImportAsync(
+		IContext context,
+		IMendixObject _excelFile,
+		java.lang.String _mappingTemplate,
+		java.lang.String _entity
+	)
+	{
+		super(context);
+		this.__ExcelFile = _excelFile;
+		this.ExcelFile = _excelFile == null ? null : system.proxies.FileDocument.initialize(getContext(), _excelFile);
+		this.MappingTemplate = _mappingTemplate;
+		this.Entity = _entity;
+	}
+
+	@java.lang.Override
+	public java.lang.String executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+        if (this.ExcelFile == null)
+            throw new CoreException("You must upload a file document before the columns can be extracted.");
+        if (this.MappingTemplate == null || this.MappingTemplate.isBlank())
+            throw new CoreException("Mapping template is empty.");
+        if (this.Entity != null && !this.Entity.isBlank() && !Core.getMetaObject(this.Entity).isPersistable())
+            throw new CoreException("The entity '" + this.Entity + "' must be persistable to be imported in the background.");
+        var headerMatching = MappingTemplateParser.getHeaderMatching(this.MappingTemplate);
+        String templateName = MappingTemplateParser.getTemplateName(this.MappingTemplate);
+        String excelFileName = ((String) this.ExcelFile.getMendixObject().getValue(this.getContext(), "Name")).toLowerCase(Locale.ROOT);
+        String userName = this.getContext().getSession() == null ? "System" : this.getContext().getSession().getUserName();
+
+        // Everything that can fail is checked before the copy; from submit on, the job owns the copy and deletes it
+        var excelFile = MappingTemplateParser.copyToTempFile(this.getContext(), this.ExcelFile.getMendixObject());
+        if (excelFile.length() == 0) {
+            Files.deleteIfExists(excelFile.toPath());
+            throw new CoreException("Uploaded file document is empty.");
+        }
+        return ImportJobExecutor.getInstance().submit(excelFile, excelFileName, this.MappingTemplate, headerMatching,
+                this.getContext(), userName, templateName).getId();
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "DataImportAsync";
+	}
+
+	// BEGIN EXTRA CODE
+	// END EXTRA CODE
+}
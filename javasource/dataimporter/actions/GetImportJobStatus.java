@@ -0,0 +1,83 @@
+// This file was generated by Mendix Studio Pro.
+//
+// WARNING: Only the following code will be retained when actions are regenerated:
+// - the import list
+// - the code between BEGIN USER CODE and END USER CODE
+// - the code between BEGIN EXTRA CODE and END EXTRA CODE
+// Other code you write will be lost the next time you deploy the project.
+// Special characters, e.g., é, ö, à, etc. are supported in comments.
+
+package dataimporter.actions;
+
+import com.mendix.core.CoreException;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.thirdparty.org.json.JSONObject;
+import com.mendix.webui.CustomJavaAction;
+import dataimporter.implementation.service.ImportJobExecutor;
+
+/**
+ * Returns the status of an import job started with DataImportAsync as a JSON object with the fields
+ * id, status (QUEUED, RUNNING, COMPLETED or FAILED), rowsImported, rowsCommitted, queuedAt, startedAt,
+ * finishedAt, error, queueKey and queueWaitMs. The queue field holds the number of running and queued imports
+ * and the average and maximum time imports waited in the queue.
+ * 
+ * Finished jobs are kept for one hour.
+ * 
+ * @param JobId The id returned by DataImportAsync.
+ * 
+ * @return The status of the job as JSON.
+ */
+public class GetImportJobStatus extends CustomJavaAction<java.lang.String>
+{
+	private final java.lang.String JobId;
+
+	public GetImportJobStatus(
+		IContext context,
+		java.lang.String _jobId
+	)
+	{
+		super(context);
+		this.JobId = _jobId;
+	}
+
+	@java.lang.Override
+	public java.lang.String executeAction() throws Exception
+	{
+		// BEGIN USER CODE
+        var executor = ImportJobExecutor.getInstance();
+        var job = executor.getJob(this.JobId);
+        if (job == null)
+            throw new CoreException("Import job '" + this.JobId + "' not found.");
+        return new JSONObject()
+                .put("id", job.getId())
+                .put("status", job.getStatus().name())
+                .put("rowsImported", job.getRowsImported())
+                .put("rowsCommitted", job.getRowsCommitted())
+                .put("queuedAt", job.getQueuedAt())
+                .put("startedAt", job.getStartedAt())
+                .put("finishedAt", job.getFinishedAt())
+                .put("error", job.getErrorMessage() == null ? "" : job.getErrorMessage())
+                .put("queueKey", job.getQueueKey())
+                .put("queueWaitMs", job.getQueueWaitMillis())
+                .put("queue", new JSONObject()
+                        .put("runningImports", executor.getRunningImports())
+                        .put("queuedImports", executor.getQueuedImports())
+                        .put("averageQueueWaitMs", executor.getAverageQueueWaitMillis())
+                        .put("maxQueueWaitMs", executor.getMaxQueueWaitMillis()))
+                .toString();
+		// END USER CODE
+	}
+
+	/**
+	 * Returns a string representation of this action
+	 * @return a string representation of this action
+	 */
+	@java.lang.Override
+	public java.lang.String toString()
+	{
+		return "GetImportJobStatus";
+	}
+
+	// BEGIN EXTRA CODE
+	// END EXTRA CODE
+}
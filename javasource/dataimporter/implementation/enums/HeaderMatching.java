@@ -0,0 +1,12 @@
+package dataimporter.implementation.enums;
+
+/**
+ * How the column names of a mapping template are matched to the headers of a sheet. Templates match exactly
+ * unless they opt in to another mode with the "headerMatching" key.
+ */
+public enum HeaderMatching {
+    EXACT,
+    WHITESPACE_INSENSITIVE,
+    CASE_INSENSITIVE,
+    SANITIZED
+}
@@ -0,0 +1,8 @@
+package dataimporter.implementation.enums;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,112 @@
+package dataimporter.implementation.model;
+
+import dataimporter.implementation.enums.ImportJobStatus;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle of an import that runs in the background. It is updated by the worker thread and polled by the UI,
+ * so all fields are safe to read from another thread.
+ */
+public class ImportJob {
+    private final String id = UUID.randomUUID().toString();
+    private final String excelFileName;
+    private final String queueKey;
+    private final long queuedAt = System.currentTimeMillis();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsCommitted = new AtomicLong();
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String errorMessage;
+
+    public ImportJob(String excelFileName, String queueKey) {
+        this.excelFileName = excelFileName;
+        this.queueKey = queueKey;
+    }
+
+    public void markRunning() {
+        startedAt = System.currentTimeMillis();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    public void markCompleted() {
+        finishedAt = System.currentTimeMillis();
+        status = ImportJobStatus.COMPLETED;
+    }
+
+    public void markFailed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        finishedAt = System.currentTimeMillis();
+        status = ImportJobStatus.FAILED;
+    }
+
+    public void incrementRowsImported() {
+        rowsImported.incrementAndGet();
+    }
+
+    public void addRowsCommitted(int rows) {
+        rowsCommitted.addAndGet(rows);
+    }
+
+    public boolean isFinished() {
+        return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getExcelFileName() {
+        return excelFileName;
+    }
+
+    public String getQueueKey() {
+        return queueKey;
+    }
+
+    public ImportJobStatus getStatus() {
+        return status;
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getRowsCommitted() {
+        return rowsCommitted.get();
+    }
+
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getQueueWaitMillis() {
+        return (startedAt == 0 ? System.currentTimeMillis() : startedAt) - queuedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportJob{ " +
+                "id=" + id +
+                ", excelFileName=" + excelFileName +
+                ", queueKey=" + queueKey +
+                ", status=" + status +
+                ", rowsImported=" + rowsImported +
+                ", rowsCommitted=" + rowsCommitted +
+                " }";
+    }
+}
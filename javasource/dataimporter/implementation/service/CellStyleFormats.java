@@ -0,0 +1,62 @@
+package dataimporter.implementation.service;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Per-workbook cache of the data format of every cell style, keyed by style index.
+ * <p>
+ * A workbook only has a few dozen distinct styles, so the display mask and the (relatively expensive) date format
+ * check are done once per style instead of once per numeric cell.
+ */
+class CellStyleFormats {
+    private final IntFunction<? extends CellStyle> styleLookup;
+    private StyleFormat[] styleFormats = new StyleFormat[64];
+
+    CellStyleFormats(IntFunction<? extends CellStyle> styleLookup) {
+        this.styleLookup = styleLookup;
+    }
+
+    StyleFormat get(int styleIndex) {
+        if (styleIndex >= styleFormats.length) {
+            styleFormats = Arrays.copyOf(styleFormats, Math.max(styleIndex + 1, styleFormats.length * 2));
+        }
+        var styleFormat = styleFormats[styleIndex];
+        if (styleFormat == null) {
+            styleFormat = classify(styleLookup.apply(styleIndex));
+            styleFormats[styleIndex] = styleFormat;
+        }
+        return styleFormat;
+    }
+
+    private static StyleFormat classify(CellStyle cellStyle) {
+        if (cellStyle == null) {
+            return new StyleFormat(false, BuiltinFormats.getBuiltinFormat(0));
+        }
+        var formatString = cellStyle.getDataFormatString();
+        return new StyleFormat(DateUtil.isADateFormat(cellStyle.getDataFormat(), formatString), formatString);
+    }
+
+    static final class StyleFormat {
+        private final boolean dateFormat;
+        private final String displayMask;
+
+        private StyleFormat(boolean dateFormat, String displayMask) {
+            this.dateFormat = dateFormat;
+            this.displayMask = displayMask;
+        }
+
+        // Same check as DateUtil.isCellDateFormatted, with the format part already resolved.
+        boolean isDate(double numericValue) {
+            return dateFormat && DateUtil.isValidExcelDate(numericValue);
+        }
+
+        String getDisplayMask() {
+            return displayMask;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.mendix.logging.ILogNode;
 import com.mendix.systemwideinterfaces.core.IContext;
 import com.mendix.systemwideinterfaces.core.IMendixObject;
 import com.mendix.systemwideinterfaces.core.meta.IMetaPrimitive;
+import dataimporter.implementation.enums.HeaderMatching;
 import dataimporter.implementation.model.ExcelCellData;
 import dataimporter.implementation.utils.DataImporterRuntimeException;
 import dataimporter.implementation.utils.DataImporterUtils;
@@ -23,6 +24,7 @@ import java.io.File;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class DataProcessor {
@@ -32,12 +34,29 @@ public class DataProcessor {
     static final String MS_BECAUSE = " ms, because: ";
     static final String STARTED = " started.";
     static final String FROM_SHEET = " from sheet ";
-    private static String sheetName;
+    public static final HeaderMatching DEFAULT_HEADER_MATCHING = HeaderMatching.EXACT;
 
     private DataProcessor() {
     }
 
     public static void startImport(IContext context, IMendixObject mappingTemplate, File excelFile, String excelFileName, List<IMendixObject> importedList) throws DataImporterRuntimeException, CoreException {
+        startImport(context, mappingTemplate, excelFile, excelFileName, importedList, DEFAULT_HEADER_MATCHING);
+    }
+
+    public static void startImport(IContext context, IMendixObject mappingTemplate, File excelFile, String excelFileName, List<IMendixObject> importedList, HeaderMatching headerMatching) throws DataImporterRuntimeException, CoreException {
+        startImport(context, mappingTemplate, excelFile, excelFileName, importedList::add, headerMatching);
+    }
+
+    /**
+     * @param importedObjects receives every imported object as soon as its row is read, so the caller decides
+     *                        whether the objects are kept or committed in batches.
+     */
+    public static void startImport(IContext context, IMendixObject mappingTemplate, File excelFile, String excelFileName, Consumer<IMendixObject> importedObjects, HeaderMatching headerMatching) throws DataImporterRuntimeException, CoreException {
+        var importedRows = new long[1];
+        Consumer<IMendixObject> countingConsumer = importedObject -> {
+            importedObjects.accept(importedObject);
+            importedRows[0]++;
+        };
         Map<Sheet, List<ColumnAttributeMapping>> sheetColumnMappingMap = new HashMap<>();
         List<IMendixObject> templateSheets = Core.retrieveByPath(context, mappingTemplate, Sheet.MemberNames.Sheet_Template.toString());
         for (IMendixObject templateSheetObject : templateSheets) {
@@ -55,7 +74,7 @@ public class DataProcessor {
                 case XLS:
                 case XLSX:
                     for (Map.Entry<Sheet, List<ColumnAttributeMapping>> entry : sheetColumnMappingMap.entrySet()) {
-                        parseData(context, excelFile, entry.getKey(), entry.getValue(), importedList);
+                        parseData(context, excelFile, entry.getKey(), entry.getValue(), countingConsumer, headerMatching);
                     }
                     break;
                 case UNKNOWN:
@@ -63,7 +82,8 @@ public class DataProcessor {
                 default:
                     throw new CoreException("File extension is not an Excel extension ('.xls' or '.xlsx').");
             }
-            logNode.info("Successfully finished importing '" + importedList.size() + "' rows of '" + sheetName + "' sheet from excelFile: '" + excelFileName + "' in '" + ((System.nanoTime() - importStartTime) / 1000000) + " ms'");
+            var sheetNames = sheetColumnMappingMap.keySet().stream().map(Sheet::getSheetName).collect(Collectors.joining("', '"));
+            logNode.info("Successfully finished importing '" + importedRows[0] + "' rows of '" + sheetNames + "' sheet from excelFile: '" + excelFileName + "' in '" + ((System.nanoTime() - importStartTime) / 1000000) + " ms'");
         } catch (OLE2NotOfficeXmlFileException e) {
             logNode.error(ERROR_WHILE_IMPORTING + excelFileName + "' " + ((System.nanoTime() - importStartTime) / 1000000) + MS_BECAUSE + e.getMessage());
             throw new DataImporterRuntimeException("Document could not be imported because this excelFile is an XLS and not an XLSX excelFile. Please make sure the excelFile is valid and has the correct extension.");
@@ -91,8 +111,16 @@ public class DataProcessor {
     }
 
     public static void parseData(IContext context, File file, Sheet sheetMendixObject, List<ColumnAttributeMapping> columnAttributeMappingMendixObjects, List<IMendixObject> importedList) {
-        try (var dataReader = new DataReader(file)) {
-            sheetName = sheetMendixObject.getSheetName();
+        parseData(context, file, sheetMendixObject, columnAttributeMappingMendixObjects, importedList, DEFAULT_HEADER_MATCHING);
+    }
+
+    public static void parseData(IContext context, File file, Sheet sheetMendixObject, List<ColumnAttributeMapping> columnAttributeMappingMendixObjects, List<IMendixObject> importedList, HeaderMatching headerMatching) {
+        parseData(context, file, sheetMendixObject, columnAttributeMappingMendixObjects, importedList::add, headerMatching);
+    }
+
+    public static void parseData(IContext context, File file, Sheet sheetMendixObject, List<ColumnAttributeMapping> columnAttributeMappingMendixObjects, Consumer<IMendixObject> importedObjects, HeaderMatching headerMatching) {
+        try (var dataReader = DataReader.open(file)) {
+            var sheetName = sheetMendixObject.getSheetName();
             dataReader.openSheet(sheetName);
             if (logNode.isTraceEnabled()) {
                 logNode.trace("Reading excel header row from sheet: '" + sheetName + "'" + STARTED);
@@ -105,26 +133,26 @@ public class DataProcessor {
                 throw new DataImporterRuntimeException("No column information could be found in sheet: '" + sheetName + "'");
             }
 
-            Set<String> headerColumnNames = headerRowData.stream()
-                    .map(ExcelCellData::getFormattedData)
-                    .map(Object::toString)
-                    .collect(Collectors.toSet());
+            var headerIndex = new HeaderIndex(headerRowData, headerMatching);
+            Map<String, String> columnHeaders = new HashMap<>();
             for (ColumnAttributeMapping columnAttributeMapping : columnAttributeMappingMendixObjects) {
-                if (!headerColumnNames.contains(columnAttributeMapping.getColumnName())) {
+                String columnHeader = headerIndex.find(columnAttributeMapping.getColumnName());
+                if (columnHeader == null) {
                     throw new DataImporterRuntimeException("column with a name: '" + columnAttributeMapping.getColumnName() + "' is not found in sheet: '" + sheetName + "'");
                 }
+                columnHeaders.put(columnAttributeMapping.getColumnName(), columnHeader);
             }
 
             int dataRowNo = sheetMendixObject.getDataRowStartsAt() - 1;
             while (dataReader.hasNextRow(dataRowNo)) {
-                dataRowNo = readExcelRow(context, columnAttributeMappingMendixObjects, dataReader, headerRowData, dataRowNo, importedList);
+                dataRowNo = readExcelRow(context, sheetName, columnAttributeMappingMendixObjects, columnHeaders, dataReader, headerRowData, dataRowNo, importedObjects);
             }
         } catch (Exception e) {
             throw new DataImporterRuntimeException(e.getMessage(), e);
         }
     }
 
-    private static int readExcelRow(IContext context, List<ColumnAttributeMapping> columnAttributeMappingMendixObjects, DataReader dataReader, List<ExcelCellData> headerRowData, int dataRowNo, List<IMendixObject> importedList) throws DataReaderException {
+    private static int readExcelRow(IContext context, String sheetName, List<ColumnAttributeMapping> columnAttributeMappingMendixObjects, Map<String, String> columnHeaders, DataReader dataReader, List<ExcelCellData> headerRowData, int dataRowNo, Consumer<IMendixObject> importedObjects) throws DataReaderException {
         try {
             if (logNode.isTraceEnabled()) {
                 logNode.trace("Reading excel row: " + dataRowNo + FROM_SHEET + sheetName + STARTED);
@@ -138,7 +166,7 @@ public class DataProcessor {
                 if (logNode.isTraceEnabled()) {
                     logNode.trace("Importing excel row: " + dataRowNo + FROM_SHEET + sheetName + STARTED);
                 }
-                importedList.add(processRowData(context, dataRow, columnAttributeMappingMendixObjects));
+                importedObjects.accept(processRowData(context, dataRow, columnAttributeMappingMendixObjects, columnHeaders));
                 if (logNode.isTraceEnabled()) {
                     logNode.trace("Importing excel row: " + dataRowNo + FROM_SHEET + sheetName + " finished.");
                 }
@@ -151,6 +179,14 @@ public class DataProcessor {
     }
 
     public static IMendixObject processRowData(IContext context, List<ExcelCellData> dataRow, List<ColumnAttributeMapping> columnAttributeMappingMendixObjects) {
+        return processRowData(context, dataRow, columnAttributeMappingMendixObjects, Collections.emptyMap());
+    }
+
+    /**
+     * @param columnHeaders maps the column name of a mapping to the header as it appears in the sheet, for columns
+     *                      that were matched by a normalized name.
+     */
+    public static IMendixObject processRowData(IContext context, List<ExcelCellData> dataRow, List<ColumnAttributeMapping> columnAttributeMappingMendixObjects, Map<String, String> columnHeaders) {
         // Store MetaPrimitives in a map to avoid multiple calls to Core API functions
         Map<String, IMetaPrimitive> metaPrimitiveMap = new HashMap<>();
         for (ColumnAttributeMapping attributeMapping : columnAttributeMappingMendixObjects) {
@@ -167,7 +203,7 @@ public class DataProcessor {
         IMendixObject entityObject = Core.instantiate(context, Core.getMetaPrimitive(columnAttributeMappingMendixObjects.get(0).getAttribute()).getParent().getName());
         for (ColumnAttributeMapping attributeMapping : columnAttributeMappingMendixObjects) {
             String attributeName = Core.getMetaPrimitive(attributeMapping.getAttribute()).getName();
-            var excelCellData = cellDataMap.get(attributeMapping.getColumnName());
+            var excelCellData = cellDataMap.get(columnHeaders.getOrDefault(attributeMapping.getColumnName(), attributeMapping.getColumnName()));
             if (excelCellData != null) {
                 var iMetaPrimitive = metaPrimitiveMap.get(attributeName);
                 entityObject.setValue(context, attributeName, getMendixTypeObject(iMetaPrimitive, excelCellData));
@@ -2,6 +2,7 @@ package dataimporter.implementation.service;
 
 import dataimporter.implementation.model.ExcelCellData;
 import dataimporter.implementation.utils.DataImporterRuntimeException;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
@@ -15,14 +16,28 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class DataReader implements AutoCloseable {
+    // XLSX files of at least this size are read with the StreamingDataReader
+    static final long STREAMING_READ_THRESHOLD = 10L * 1024 * 1024;
     private Workbook workbook;
     private Sheet sheet;
+    private CellStyleFormats styleFormats;
+
+    protected DataReader() {
+    }
 
     public DataReader(File excelFile) throws IOException {
         if (excelFile == null || !excelFile.exists()) {
             throw new DataImporterRuntimeException("Excel file not found.");
         }
         this.workbook = WorkbookFactory.create(excelFile);
+        this.styleFormats = new CellStyleFormats(workbook::getCellStyleAt);
+    }
+
+    public static DataReader open(File excelFile) throws IOException {
+        if (excelFile != null && excelFile.length() >= STREAMING_READ_THRESHOLD && FileMagic.valueOf(excelFile) == FileMagic.OOXML) {
+            return new StreamingDataReader(excelFile);
+        }
+        return new DataReader(excelFile);
     }
 
     public boolean hasNextRow(int rowNo) {
@@ -114,11 +129,12 @@ public class DataReader implements AutoCloseable {
                 var rtsi = new XSSFRichTextString(cellValueString.toString());
                 return new ExcelCellData(columnIndex, columnHeader, cellValueString, rtsi.toString());
             case NUMERIC:
-                final var formatString = cell.getCellStyle().getDataFormatString();
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return new ExcelCellData(columnIndex, columnHeader, cell.getNumericCellValue(), cell.getDateCellValue(), formatString);
+                final var styleFormat = styleFormats.get(Short.toUnsignedInt(cell.getCellStyle().getIndex()));
+                final var numericValue = cell.getNumericCellValue();
+                if (styleFormat.isDate(numericValue)) {
+                    return new ExcelCellData(columnIndex, columnHeader, numericValue, cell.getDateCellValue(), styleFormat.getDisplayMask());
                 } else {
-                    return new ExcelCellData(columnIndex, columnHeader, cellValueString, cellValueString, formatString);
+                    return new ExcelCellData(columnIndex, columnHeader, cellValueString, cellValueString, styleFormat.getDisplayMask());
                 }
             default:
                 return null;
@@ -129,11 +145,15 @@ public class DataReader implements AutoCloseable {
         if (headerRowData == null) {
             return getCellName(cell);
         } else {
-            var header = headerRowData.stream().filter(h -> h.getColumnIndex() == columnIndex).findFirst().orElse(null);
-            return header == null ? null : header.getFormattedData().toString().trim();
+            return getColumnHeader(headerRowData, columnIndex);
         }
     }
 
+    protected String getColumnHeader(List<ExcelCellData> headerRowData, int columnIndex) {
+        var header = headerRowData.stream().filter(h -> h.getColumnIndex() == columnIndex).findFirst().orElse(null);
+        return header == null ? null : header.getFormattedData().toString().trim();
+    }
+
     private String getCellName(Cell cell) {
         return CellReference.convertNumToColString(cell.getColumnIndex()) + (cell.getRowIndex() + 1);
     }
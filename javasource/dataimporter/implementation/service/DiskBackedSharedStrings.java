@@ -0,0 +1,214 @@
+package dataimporter.implementation.service;
+
+import dataimporter.implementation.utils.DataImporterRuntimeException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared-strings table of an XLSX workbook that keeps the strings in a temp file instead of on the heap.
+ * <p>
+ * The UTF-8 bytes of every unique string are written to the temp file once, and an offset index is kept
+ * to find them back. The strings are stored as they are in the workbook, and only a small LRU of decoded strings
+ * is held in memory. Not thread-safe.
+ */
+public class DiskBackedSharedStrings implements SharedStrings, AutoCloseable {
+    static final int DEFAULT_CACHE_SIZE = 1024;
+    private static final int INITIAL_INDEX_SIZE = 1024;
+    private static final Pattern UTF_ESCAPE = Pattern.compile("_x([0-9A-Fa-f]{4})_");
+
+    private final File storeFile;
+    private final Map<Integer, String> cache;
+    private FileChannel channel;
+    private long[] offsets = new long[INITIAL_INDEX_SIZE];
+    private int uniqueCount;
+    private int count;
+
+    private DiskBackedSharedStrings(File storeFile, int cacheSize) {
+        this.storeFile = storeFile;
+        this.cache = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static DiskBackedSharedStrings load(OPCPackage opcPackage, File directory) throws IOException {
+        return load(opcPackage, directory, DEFAULT_CACHE_SIZE);
+    }
+
+    public static DiskBackedSharedStrings load(OPCPackage opcPackage, File directory, int cacheSize) throws IOException {
+        var sharedStrings = new DiskBackedSharedStrings(File.createTempFile("Mendix_DataImporter_sst_", ".tmp", directory), cacheSize);
+        try {
+            List<PackagePart> parts = opcPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(sharedStrings.storeFile.toPath()))) {
+                if (!parts.isEmpty()) {
+                    try (InputStream inputStream = parts.get(0).getInputStream()) {
+                        sharedStrings.readFrom(inputStream, outputStream);
+                    }
+                }
+            }
+            sharedStrings.channel = FileChannel.open(sharedStrings.storeFile.toPath(), StandardOpenOption.READ);
+        } catch (IOException | RuntimeException e) {
+            sharedStrings.close();
+            throw e;
+        } catch (XMLStreamException e) {
+            sharedStrings.close();
+            throw new IOException("Shared strings of the excel file could not be read.", e);
+        }
+        return sharedStrings;
+    }
+
+    private void readFrom(InputStream inputStream, OutputStream outputStream) throws XMLStreamException, IOException {
+        XMLStreamReader parser = XMLHelper.newXMLInputFactory().createXMLStreamReader(inputStream);
+        try {
+            long position = 0;
+            while (parser.hasNext()) {
+                if (parser.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                if ("sst".equals(parser.getLocalName())) {
+                    String countValue = parser.getAttributeValue(null, "count");
+                    count = countValue == null ? 0 : Integer.parseInt(countValue);
+                } else if ("si".equals(parser.getLocalName())) {
+                    byte[] bytes = readStringItem(parser).getBytes(StandardCharsets.UTF_8);
+                    outputStream.write(bytes);
+                    position += bytes.length;
+                    if (uniqueCount + 1 == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[++uniqueCount] = position;
+                }
+            }
+        } finally {
+            parser.close();
+        }
+        if (count < uniqueCount) {
+            count = uniqueCount;
+        }
+    }
+
+    // Concatenates the text runs of one <si> element, leaving out phonetic runs (<rPh>).
+    private static String readStringItem(XMLStreamReader parser) throws XMLStreamException {
+        var text = new StringBuilder();
+        var phoneticDepth = 0;
+        while (parser.hasNext()) {
+            int event = parser.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("rPh".equals(parser.getLocalName())) {
+                    phoneticDepth++;
+                } else if ("t".equals(parser.getLocalName()) && phoneticDepth == 0) {
+                    text.append(parser.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("rPh".equals(parser.getLocalName())) {
+                    phoneticDepth--;
+                } else if ("si".equals(parser.getLocalName())) {
+                    break;
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the text of a shared string, with the _xHHHH_ escapes of characters that XML cannot hold decoded,
+     * as {@link XSSFRichTextString#getString()} does.
+     */
+    public String getString(int idx) {
+        String value = cache.get(idx);
+        if (value == null) {
+            value = utfDecode(readString(idx));
+            cache.put(idx, value);
+        }
+        return value;
+    }
+
+    // Same decoding as XSSFRichTextString.utfDecode, which is not public. _x005F_ escapes the underscore itself.
+    static String utfDecode(String value) {
+        if (!value.contains("_x")) {
+            return value;
+        }
+        var text = new StringBuilder(value.length());
+        Matcher matcher = UTF_ESCAPE.matcher(value);
+        int end = 0;
+        while (matcher.find()) {
+            text.append(value, end, matcher.start());
+            text.append((char) Integer.parseInt(matcher.group(1), 16));
+            end = matcher.end();
+        }
+        return end == 0 ? value : text.append(value, end, value.length()).toString();
+    }
+
+    private String readString(int idx) {
+        if (idx < 0 || idx >= uniqueCount) {
+            throw new DataImporterRuntimeException("Shared string with index '" + idx + "' not found.");
+        }
+        long start = offsets[idx];
+        var buffer = ByteBuffer.allocate((int) (offsets[idx + 1] - start));
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of shared strings store.");
+                }
+            }
+        } catch (IOException e) {
+            throw new DataImporterRuntimeException("Shared string with index '" + idx + "' could not be read.", e);
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    // The rich text decodes the escapes itself when its string is read
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(readString(idx));
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cache.clear();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            channel = null;
+            Files.deleteIfExists(storeFile.toPath());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package dataimporter.implementation.service;
+
+import dataimporter.implementation.enums.HeaderMatching;
+import dataimporter.implementation.model.ExcelCellData;
+import dataimporter.implementation.utils.DataImporterRuntimeException;
+import dataimporter.implementation.utils.DataImporterUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookup of the header row of a sheet, built once per sheet. An exact match on the header name always wins;
+ * otherwise the names are compared after normalizing them according to the {@link HeaderMatching} rules.
+ */
+public class HeaderIndex {
+    private final HeaderMatching headerMatching;
+    private final Map<String, String> exactHeaders = new HashMap<>();
+    private final Map<String, String> normalizedHeaders = new HashMap<>();
+    private final Set<String> ambiguousHeaders = new HashSet<>();
+
+    public HeaderIndex(List<ExcelCellData> headerRowData, HeaderMatching headerMatching) {
+        this.headerMatching = headerMatching;
+        for (ExcelCellData headerCell : headerRowData) {
+            String header = headerCell.getFormattedData().toString().trim();
+            exactHeaders.put(header, header);
+            if (headerMatching != HeaderMatching.EXACT) {
+                String normalizedHeader = DataImporterUtils.normalizeHeaderName(header, headerMatching);
+                String previousHeader = normalizedHeaders.put(normalizedHeader, header);
+                if (previousHeader != null && !previousHeader.equals(header)) {
+                    ambiguousHeaders.add(normalizedHeader);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the header name as it appears in the sheet, or null if no header matches the column name.
+     */
+    public String find(String columnName) {
+        if (columnName == null) {
+            return null;
+        }
+        String header = exactHeaders.get(columnName);
+        if (header != null || headerMatching == HeaderMatching.EXACT) {
+            return header;
+        }
+        String normalizedColumnName = DataImporterUtils.normalizeHeaderName(columnName, headerMatching);
+        if (ambiguousHeaders.contains(normalizedColumnName)) {
+            throw new DataImporterRuntimeException("column with a name: '" + columnName + "' matches more than one column in the header row.");
+        }
+        return normalizedHeaders.get(normalizedColumnName);
+    }
+}
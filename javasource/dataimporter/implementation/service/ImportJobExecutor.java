@@ -0,0 +1,269 @@
+package dataimporter.implementation.service;
+
+import com.mendix.core.Core;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+import com.mendix.systemwideinterfaces.core.ISession;
+import dataimporter.implementation.enums.HeaderMatching;
+import dataimporter.implementation.model.ImportJob;
+import dataimporter.implementation.utils.DataImporterRuntimeException;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs imports on a bounded worker pool, so a burst of uploads cannot starve the rest of the application.
+ * Queued imports are started by an {@link ImportScheduler}, which shares the workers fairly between users or
+ * templates, and all workers together are held to a global row rate.
+ * <p>
+ * The scheduling can be tuned with these JVM system properties:
+ * <ul>
+ * <li>{@value #MAX_CONCURRENT_IMPORTS_PROPERTY}: number of imports running at the same time</li>
+ * <li>{@value #MAX_CONCURRENT_IMPORTS_PER_QUEUE_PROPERTY}: number of imports of one user or template running at the same time</li>
+ * <li>{@value #QUEUE_CAPACITY_PROPERTY}: number of imports that can wait in the queues</li>
+ * <li>{@value #QUEUE_KEY_PROPERTY}: USER or TEMPLATE, what the imports are queued by</li>
+ * <li>{@value #QUEUE_WEIGHTS_PROPERTY}: weights of the queues, as {@code key=weight,key=weight}</li>
+ * <li>{@value #MAX_ROWS_PER_SECOND_PROPERTY}: rows per second imported by all workers together</li>
+ * </ul>
+ * Imported objects are committed in batches of {@value #COMMIT_BATCH_SIZE} while the file is read, each batch in a
+ * transaction of its own, so only one batch is held in memory; when an import fails, the batches before the failing
+ * one stay committed. The import runs in a new context of the session that
+ * requested it, so the entity access of its user applies as it does for the synchronous import; a request from a sudo
+ * context, or one without a session, runs in a sudo or system context.
+ */
+public class ImportJobExecutor {
+    static final String MAX_CONCURRENT_IMPORTS_PROPERTY = "dataimporter.maxConcurrentImports";
+    static final String MAX_CONCURRENT_IMPORTS_PER_QUEUE_PROPERTY = "dataimporter.maxConcurrentImportsPerQueue";
+    static final String QUEUE_CAPACITY_PROPERTY = "dataimporter.importQueueCapacity";
+    static final String QUEUE_KEY_PROPERTY = "dataimporter.importQueueKey";
+    static final String QUEUE_WEIGHTS_PROPERTY = "dataimporter.importQueueWeights";
+    static final String MAX_ROWS_PER_SECOND_PROPERTY = "dataimporter.maxImportedRowsPerSecond";
+    static final int COMMIT_BATCH_SIZE = 1000;
+    private static final long FINISHED_JOB_RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final ThreadPoolExecutor executor;
+    private final ImportScheduler scheduler;
+    private final RowRateLimiter rowRateLimiter;
+    private final boolean queueByTemplate;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final LongAdder startedImports = new LongAdder();
+    private final LongAdder totalQueueWaitMillis = new LongAdder();
+    private final AtomicLong maxQueueWaitMillis = new AtomicLong();
+
+    private static class InstanceHolder {
+        private static final ImportJobExecutor INSTANCE = new ImportJobExecutor(
+                Integer.getInteger(MAX_CONCURRENT_IMPORTS_PROPERTY, Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                Integer.getInteger(MAX_CONCURRENT_IMPORTS_PER_QUEUE_PROPERTY, 1),
+                Integer.getInteger(QUEUE_CAPACITY_PROPERTY, 100),
+                "TEMPLATE".equalsIgnoreCase(System.getProperty(QUEUE_KEY_PROPERTY, "USER")),
+                parseWeights(System.getProperty(QUEUE_WEIGHTS_PROPERTY, "")),
+                Integer.getInteger(MAX_ROWS_PER_SECOND_PROPERTY, 0));
+    }
+
+    ImportJobExecutor(int maxConcurrentImports, int maxConcurrentImportsPerQueue, int queueCapacity, boolean queueByTemplate,
+                      Map<String, Double> queueWeights, int maxRowsPerSecond) {
+        // The scheduler never hands out more imports than there are workers, so this queue stays (nearly) empty
+        this.executor = new ThreadPoolExecutor(maxConcurrentImports, maxConcurrentImports, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ImportThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.scheduler = new ImportScheduler(maxConcurrentImports, maxConcurrentImportsPerQueue, queueCapacity, queueWeights);
+        this.rowRateLimiter = new RowRateLimiter(maxRowsPerSecond);
+        this.queueByTemplate = queueByTemplate;
+    }
+
+    public static ImportJobExecutor getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Takes ownership of the excel file: it is deleted when the import is done, or right away if it cannot be queued.
+     *
+     * @param requestContext the context of the request; its session and sudo flag are used to create the context
+     *                       of the import, the context itself is not used by the worker
+     */
+    public ImportJob submit(File excelFile, String excelFileName, String mappingTemplate, HeaderMatching headerMatching,
+                            IContext requestContext, String userName, String templateName) {
+        ImportJob job = null;
+        try {
+            final var session = requestContext.getSession();
+            final var sudo = requestContext.isSudo();
+            removeFinishedJobs();
+            final var queuedJob = new ImportJob(excelFileName, queueByTemplate ? templateName : userName);
+            job = queuedJob;
+            jobs.put(job.getId(), job);
+            scheduler.enqueue(new ImportScheduler.ScheduledImport(job.getQueueKey(), excelFile.length(),
+                    () -> runImport(queuedJob, excelFile, mappingTemplate, headerMatching, session, sudo)));
+        } catch (RuntimeException e) {
+            if (job != null) {
+                jobs.remove(job.getId());
+            }
+            deleteQuietly(excelFile);
+            if (e instanceof RejectedExecutionException) {
+                throw new DataImporterRuntimeException("Too many imports are queued, please try again later.", e);
+            }
+            throw e;
+        }
+        if (DataProcessor.logNode.isDebugEnabled()) {
+            DataProcessor.logNode.debug("Queued " + job + ", active imports: " + scheduler.getRunning() + ", queued imports: " + scheduler.getQueued());
+        }
+        dispatch();
+        return job;
+    }
+
+    public ImportJob getJob(String jobId) {
+        removeFinishedJobs();
+        return jobs.get(jobId);
+    }
+
+    public int getRunningImports() {
+        return scheduler.getRunning();
+    }
+
+    public int getQueuedImports() {
+        return scheduler.getQueued();
+    }
+
+    public long getAverageQueueWaitMillis() {
+        long started = startedImports.sum();
+        return started == 0 ? 0 : totalQueueWaitMillis.sum() / started;
+    }
+
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis.get();
+    }
+
+    private void dispatch() {
+        ImportScheduler.ScheduledImport scheduledImport;
+        while ((scheduledImport = scheduler.next()) != null) {
+            final var next = scheduledImport;
+            executor.execute(() -> {
+                try {
+                    next.getTask().run();
+                } finally {
+                    scheduler.finished(next.getQueueKey());
+                    dispatch();
+                }
+            });
+        }
+    }
+
+    private void runImport(ImportJob job, File excelFile, String mappingTemplate, HeaderMatching headerMatching,
+                           ISession session, boolean sudo) {
+        job.markRunning();
+        recordQueueWait(job);
+        IContext context = createImportContext(session, sudo);
+        List<IMendixObject> batch = new ArrayList<>(COMMIT_BATCH_SIZE);
+        try {
+            var template = MappingTemplateParser.createTemplate(context, mappingTemplate);
+            DataProcessor.startImport(context, template.getMendixObject(), excelFile, job.getExcelFileName(), importedObject -> {
+                // Throttled before the object joins a batch, so no transaction is open while waiting
+                try {
+                    rowRateLimiter.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DataImporterRuntimeException("Import was interrupted.", e);
+                }
+                job.incrementRowsImported();
+                batch.add(importedObject);
+                if (batch.size() == COMMIT_BATCH_SIZE) {
+                    commitBatch(context, job, batch);
+                }
+            }, headerMatching);
+            commitBatch(context, job, batch);
+            job.markCompleted();
+        } catch (Exception e) {
+            DataProcessor.logNode.error("Import job '" + job.getId() + "' failed: " + e.getMessage(), e);
+            job.markFailed(e.getMessage());
+        } finally {
+            deleteQuietly(excelFile);
+        }
+    }
+
+    private static void commitBatch(IContext context, ImportJob job, List<IMendixObject> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        context.startTransaction();
+        try {
+            Core.commit(context, batch);
+            context.endTransaction();
+        } catch (Exception e) {
+            context.rollbackTransaction();
+            throw new DataImporterRuntimeException("Committing rows " + (job.getRowsCommitted() + 1) + " to "
+                    + (job.getRowsCommitted() + batch.size()) + " failed: " + e.getMessage(), e);
+        }
+        job.addRowsCommitted(batch.size());
+        batch.clear();
+    }
+
+    private static IContext createImportContext(ISession session, boolean sudo) {
+        if (session == null) {
+            return Core.createSystemContext();
+        }
+        var context = session.createContext();
+        return sudo ? context.createSudoClone() : context;
+    }
+
+    private void recordQueueWait(ImportJob job) {
+        long queueWaitMillis = job.getQueueWaitMillis();
+        startedImports.increment();
+        totalQueueWaitMillis.add(queueWaitMillis);
+        maxQueueWaitMillis.accumulateAndGet(queueWaitMillis, Math::max);
+        if (DataProcessor.logNode.isDebugEnabled()) {
+            DataProcessor.logNode.debug("Started " + job + " after waiting " + queueWaitMillis + " ms in the queue.");
+        }
+    }
+
+    private void removeFinishedJobs() {
+        long expiredBefore = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MS;
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < expiredBefore);
+    }
+
+    static Map<String, Double> parseWeights(String weights) {
+        Map<String, Double> parsedWeights = new HashMap<>();
+        for (String weight : weights.split(",")) {
+            int separator = weight.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                parsedWeights.put(weight.substring(0, separator).trim(), Double.parseDouble(weight.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                DataProcessor.logNode.warn("Ignoring invalid import queue weight '" + weight + "'.");
+            }
+        }
+        return parsedWeights;
+    }
+
+    private static void deleteQuietly(File excelFile) {
+        try {
+            Files.deleteIfExists(excelFile.toPath());
+        } catch (final Exception ignored) {
+            DataProcessor.logNode.error("Could not delete temp excelFile.");
+        }
+    }
+
+    private static class ImportThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            var thread = new Thread(runnable, "DataImporter-Import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dataimporter.implementation.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Weighted fair queuing of imports. Imports are queued per key (a user or a template). Every queue has a virtual
+ * clock that advances by the size of the files it started divided by the weight of the queue, and the next import
+ * is taken from the queue with the lowest clock that is still below its concurrency cap. One team's large files
+ * therefore cannot hold back the small files of other teams.
+ */
+class ImportScheduler {
+    private final int maxConcurrentImports;
+    private final int maxConcurrentImportsPerQueue;
+    private final int queueCapacity;
+    private final Map<String, Double> weights;
+    private final Map<String, ImportQueue> queues = new HashMap<>();
+    private int running;
+    private int queued;
+    private double virtualTime;
+
+    ImportScheduler(int maxConcurrentImports, int maxConcurrentImportsPerQueue, int queueCapacity, Map<String, Double> weights) {
+        this.maxConcurrentImports = maxConcurrentImports;
+        this.maxConcurrentImportsPerQueue = maxConcurrentImportsPerQueue;
+        this.queueCapacity = queueCapacity;
+        this.weights = weights;
+    }
+
+    synchronized void enqueue(ScheduledImport scheduledImport) {
+        if (queued >= queueCapacity) {
+            throw new RejectedExecutionException("Import queue is full.");
+        }
+        var queue = queues.computeIfAbsent(scheduledImport.queueKey, key -> new ImportQueue(weights.getOrDefault(key, 1.0)));
+        if (queue.isIdle()) {
+            // A queue that was idle must not get credit for the time it did not use
+            queue.clock = Math.max(queue.clock, virtualTime);
+        }
+        queue.imports.add(scheduledImport);
+        queued++;
+    }
+
+    /**
+     * @return the next import to start, or null if the worker pool is busy or all queues are at their cap.
+     */
+    synchronized ScheduledImport next() {
+        if (running >= maxConcurrentImports) {
+            return null;
+        }
+        ImportQueue next = null;
+        for (ImportQueue queue : queues.values()) {
+            if (!queue.imports.isEmpty() && queue.running < maxConcurrentImportsPerQueue && (next == null || queue.clock < next.clock)) {
+                next = queue;
+            }
+        }
+        if (next == null) {
+            return null;
+        }
+        var scheduledImport = next.imports.poll();
+        virtualTime = next.clock;
+        next.clock += Math.max(1L, scheduledImport.cost) / next.weight;
+        next.running++;
+        running++;
+        queued--;
+        return scheduledImport;
+    }
+
+    synchronized void finished(String queueKey) {
+        running--;
+        var queue = queues.get(queueKey);
+        if (queue != null) {
+            queue.running--;
+            if (queue.isIdle()) {
+                queues.remove(queueKey);
+            }
+        }
+    }
+
+    synchronized int getRunning() {
+        return running;
+    }
+
+    synchronized int getQueued() {
+        return queued;
+    }
+
+    private static class ImportQueue {
+        private final Deque<ScheduledImport> imports = new ArrayDeque<>();
+        private final double weight;
+        private double clock;
+        private int running;
+
+        private ImportQueue(double weight) {
+            this.weight = weight > 0 ? weight : 1.0;
+        }
+
+        private boolean isIdle() {
+            return imports.isEmpty() && running == 0;
+        }
+    }
+
+    static class ScheduledImport {
+        private final String queueKey;
+        private final long cost;
+        private final Runnable task;
+
+        ScheduledImport(String queueKey, long cost, Runnable task) {
+            this.queueKey = queueKey;
+            this.cost = cost;
+            this.task = task;
+        }
+
+        String getQueueKey() {
+            return queueKey;
+        }
+
+        Runnable getTask() {
+            return task;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dataimporter.implementation.service;
+
+import com.mendix.core.Core;
+import com.mendix.core.CoreException;
+import com.mendix.systemwideinterfaces.core.IContext;
+import com.mendix.systemwideinterfaces.core.IMendixObject;
+import com.mendix.thirdparty.org.json.JSONObject;
+import dataimporter.implementation.enums.HeaderMatching;
+import dataimporter.implementation.utils.DataImporterRuntimeException;
+import dataimporter.proxies.ColumnAttributeMapping;
+import dataimporter.proxies.Sheet;
+import dataimporter.proxies.Template;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public class MappingTemplateParser {
+
+    private MappingTemplateParser() {
+    }
+
+    public static Template createTemplate(IContext context, String mappingTemplate) {
+        var templateMetaData = new JSONObject(mappingTemplate);
+
+        var template = new Template(context);
+        template.setTemplateName(templateMetaData.getString("templateName"));
+        var entityMetaDataArr = templateMetaData.getJSONArray("entityMetaData");
+        for (var i = 0; i < entityMetaDataArr.length(); i++) {
+            var sheetMetaData = entityMetaDataArr.getJSONObject(i);
+            var sheet = new Sheet(context);
+            sheet.setSheetName(sheetMetaData.getString("excelSheetName"));
+            sheet.setHeaderRowStartsAt(sheetMetaData.getInt("headerRowNo"));
+            sheet.setDataRowStartsAt(sheetMetaData.getInt("readDataFrom"));
+            sheet.setSheet_Template(template);
+
+            var columnAttributeMapping = sheetMetaData.getJSONArray("columnMetadata");
+            for (var j = 0; j < columnAttributeMapping.length(); j++) {
+                var columnData = columnAttributeMapping.getJSONObject(j);
+                var attributeMapping = new ColumnAttributeMapping(context);
+                attributeMapping.setAttribute(columnData.getString("name"));
+                attributeMapping.setColumnName(columnData.getString("excelColumnName"));
+                attributeMapping.setColumnAttributeMapping_Sheet(sheet);
+            }
+        }
+        return template;
+    }
+
+    public static String getTemplateName(String mappingTemplate) {
+        return new JSONObject(mappingTemplate).getString("templateName");
+    }
+
+    public static HeaderMatching getHeaderMatching(String mappingTemplate) throws CoreException {
+        var headerMatching = new JSONObject(mappingTemplate).optString("headerMatching", DataProcessor.DEFAULT_HEADER_MATCHING.name());
+        try {
+            return HeaderMatching.valueOf(headerMatching.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new CoreException("Header matching '" + headerMatching + "' is not supported.", e);
+        }
+    }
+
+    /**
+     * Copies the document to a temp file of its own, so imports of the same document that run at the same time do
+     * not overwrite or delete each other's copy.
+     */
+    public static File copyToTempFile(IContext context, IMendixObject excelDocument) {
+        final File file;
+        try {
+            file = File.createTempFile("Mendix_DataImporter_" + excelDocument.getId().toLong() + "_", ".tmp", Core.getConfiguration().getTempPath());
+        } catch (IOException e) {
+            throw new DataImporterRuntimeException("Could not create a temp file for the uploaded document.", e);
+        }
+        try (var inputStream = Core.getFileDocumentContent(context, excelDocument);
+             OutputStream outputstream = new FileOutputStream(file)) {
+            final var buffer = new byte[4 * 1024];
+            int length;
+            while ((length = inputStream.read(buffer)) > 0) {
+                outputstream.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw new DataImporterRuntimeException("You must upload a file document before the columns can be extracted.");
+        }
+        return file;
+    }
+}
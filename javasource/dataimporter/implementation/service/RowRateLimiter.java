@@ -0,0 +1,37 @@
+package dataimporter.implementation.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global limit on the number of rows imported per second, shared by all import workers. Every row reserves the next
+ * free slot, and the worker sleeps until that slot is reached.
+ */
+class RowRateLimiter {
+    private final long intervalNanos;
+    private long nextFreeSlot;
+
+    /**
+     * @param rowsPerSecond maximum number of rows per second, 0 or less means unlimited.
+     */
+    RowRateLimiter(int rowsPerSecond) {
+        this.intervalNanos = rowsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / rowsPerSecond : 0;
+        this.nextFreeSlot = System.nanoTime();
+    }
+
+    void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Do not let an idle period build up a burst of free slots
+            nextFreeSlot = Math.max(nextFreeSlot, now);
+            waitNanos = nextFreeSlot - now;
+            nextFreeSlot += intervalNanos;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package dataimporter.implementation.service;
+
+import dataimporter.implementation.model.ExcelCellData;
+import dataimporter.implementation.utils.DataImporterRuntimeException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Forward-only reader for large XLSX files. The sheet XML is pulled one row at a time instead of building
+ * the whole workbook in memory, and the shared-strings table is kept in a {@link DiskBackedSharedStrings}.
+ * <p>
+ * Rows have to be requested in ascending order, which is how {@link DataProcessor} reads a sheet.
+ */
+public class StreamingDataReader extends DataReader {
+    private OPCPackage opcPackage;
+    private XSSFReader xssfReader;
+    private CellStyleFormats styleFormats;
+    private DiskBackedSharedStrings sharedStrings;
+    private boolean date1904;
+    private InputStream sheetStream;
+    private XMLStreamReader sheetParser;
+    private List<StreamedCell> currentRow;
+    private int currentRowNo = -1;
+
+    public StreamingDataReader(File excelFile) throws IOException {
+        if (excelFile == null || !excelFile.exists()) {
+            throw new DataImporterRuntimeException("Excel file not found.");
+        }
+        try {
+            this.opcPackage = OPCPackage.open(excelFile, PackageAccess.READ);
+            this.xssfReader = new XSSFReader(opcPackage);
+            final StylesTable stylesTable = xssfReader.getStylesTable();
+            this.styleFormats = new CellStyleFormats(styleIndex -> stylesTable == null ? null : stylesTable.getStyleAt(styleIndex));
+            this.date1904 = readDate1904();
+            this.sharedStrings = DiskBackedSharedStrings.load(opcPackage, excelFile.getAbsoluteFile().getParentFile());
+        } catch (OpenXML4JException | XMLStreamException e) {
+            closeQuietly();
+            throw new DataImporterRuntimeException("Excel file could not be opened: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    private boolean readDate1904() throws IOException, OpenXML4JException, XMLStreamException {
+        try (InputStream workbookStream = xssfReader.getWorkbookData()) {
+            XMLStreamReader parser = XMLHelper.newXMLInputFactory().createXMLStreamReader(workbookStream);
+            try {
+                while (parser.hasNext()) {
+                    if (parser.next() == XMLStreamConstants.START_ELEMENT) {
+                        if ("workbookPr".equals(parser.getLocalName())) {
+                            String value = parser.getAttributeValue(null, "date1904");
+                            return "1".equals(value) || "true".equalsIgnoreCase(value);
+                        }
+                        if ("sheets".equals(parser.getLocalName())) {
+                            return false;
+                        }
+                    }
+                }
+                return false;
+            } finally {
+                parser.close();
+            }
+        }
+    }
+
+    @Override
+    public void openSheet(String sheetName) {
+        if (sheetName == null || sheetName.isEmpty()) {
+            throw new DataImporterRuntimeException("'" + sheetName + "' cannot be empty");
+        }
+        closeSheet();
+        try {
+            var sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheets.hasNext()) {
+                InputStream stream = sheets.next();
+                if (sheetName.equals(sheets.getSheetName())) {
+                    this.sheetStream = stream;
+                    this.sheetParser = XMLHelper.newXMLInputFactory().createXMLStreamReader(stream);
+                    return;
+                }
+                stream.close();
+            }
+        } catch (IOException | OpenXML4JException | XMLStreamException e) {
+            throw new DataImporterRuntimeException("Sheet with a name '" + sheetName + "' could not be read.", e);
+        }
+        throw new DataImporterRuntimeException("Sheet with a name '" + sheetName + "' not found.");
+    }
+
+    @Override
+    public boolean hasNextRow(int rowNo) {
+        if (sheetParser == null) {
+            throw new DataImporterRuntimeException("Sheet is null");
+        }
+        try {
+            while (currentRowNo < rowNo && readNextRow()) {
+                // skip rows before the requested one
+            }
+        } catch (XMLStreamException e) {
+            throw new DataImporterRuntimeException("Row '" + rowNo + "' could not be read.", e);
+        }
+        return currentRow != null && currentRowNo == rowNo;
+    }
+
+    @Override
+    public List<ExcelCellData> readHeaderRow(int headerRowNo) {
+        if (!hasNextRow(headerRowNo)) {
+            throw new DataImporterRuntimeException("Row number not found");
+        }
+        return currentRow.stream()
+                .map(cell -> {
+                    Object rawData = cell.value;
+                    if (rawData != null) {
+                        return evaluateCellData(cell, rawData.toString().trim(), null);
+                    }
+                    return null;
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ExcelCellData> readDataRow(int dataRowNo, List<ExcelCellData> headerRowData) {
+        var colIndxes = headerRowData.stream().map(ExcelCellData::getColumnIndex).collect(Collectors.toList());
+        if (!hasNextRow(dataRowNo)) {
+            throw new DataImporterRuntimeException("Row number not found");
+        }
+        return currentRow.stream()
+                .map(cell -> {
+                    if (!colIndxes.contains(cell.columnIndex)) {
+                        return null;
+                    }
+                    if (cell.value != null) {
+                        return evaluateCellData(cell, cell.value, headerRowData);
+                    }
+                    return new ExcelCellData(cell.columnIndex, getColumnHeader(headerRowData, cell.columnIndex), null, null, null);
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Mirrors DataReader.evaluateCellData for cells read from the sheet XML.
+    private ExcelCellData evaluateCellData(StreamedCell cell, Object cellValueString, List<ExcelCellData> headerRowData) {
+        final int columnIndex = cell.columnIndex;
+        final String columnHeader = headerRowData == null
+                ? CellReference.convertNumToColString(columnIndex) + (currentRowNo + 1)
+                : getColumnHeader(headerRowData, columnIndex);
+        switch (cell.cellType) {
+            case ERROR:
+                return new ExcelCellData(columnIndex, columnHeader, cellValueString, "ERROR:" + cellValueString);
+            case BOOLEAN:
+            case FORMULA:
+            case STRING:
+                return new ExcelCellData(columnIndex, columnHeader, cellValueString, cellValueString);
+            case NUMERIC:
+                final double numericValue = (Double) cell.value;
+                final var styleFormat = styleFormats.get(cell.styleIndex);
+                if (styleFormat.isDate(numericValue)) {
+                    return new ExcelCellData(columnIndex, columnHeader, numericValue, DateUtil.getJavaDate(numericValue, date1904), styleFormat.getDisplayMask());
+                } else {
+                    return new ExcelCellData(columnIndex, columnHeader, cellValueString, cellValueString, styleFormat.getDisplayMask());
+                }
+            default:
+                return null;
+        }
+    }
+
+    private boolean readNextRow() throws XMLStreamException {
+        while (sheetParser.hasNext()) {
+            if (sheetParser.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheetParser.getLocalName())) {
+                String reference = sheetParser.getAttributeValue(null, "r");
+                currentRowNo = reference == null ? currentRowNo + 1 : Integer.parseInt(reference) - 1;
+                currentRow = readRowCells();
+                return true;
+            }
+        }
+        currentRow = null;
+        currentRowNo = Integer.MAX_VALUE;
+        return false;
+    }
+
+    private List<StreamedCell> readRowCells() throws XMLStreamException {
+        List<StreamedCell> cells = new ArrayList<>();
+        var columnIndex = -1;
+        while (sheetParser.hasNext()) {
+            int event = sheetParser.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheetParser.getLocalName())) {
+                String reference = sheetParser.getAttributeValue(null, "r");
+                columnIndex = reference == null ? columnIndex + 1 : getColumnIndex(reference);
+                cells.add(readCell(columnIndex));
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheetParser.getLocalName())) {
+                break;
+            }
+        }
+        return cells;
+    }
+
+    private StreamedCell readCell(int columnIndex) throws XMLStreamException {
+        final String type = sheetParser.getAttributeValue(null, "t");
+        final String style = sheetParser.getAttributeValue(null, "s");
+        String value = null;
+        StringBuilder inlineString = null;
+        var formula = false;
+        var phoneticDepth = 0;
+        while (sheetParser.hasNext()) {
+            int event = sheetParser.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (sheetParser.getLocalName()) {
+                    case "v":
+                        value = sheetParser.getElementText();
+                        break;
+                    case "f":
+                        formula = true;
+                        sheetParser.getElementText();
+                        break;
+                    case "is":
+                        inlineString = new StringBuilder();
+                        break;
+                    case "rPh":
+                        phoneticDepth++;
+                        break;
+                    case "t":
+                        if (inlineString != null && phoneticDepth == 0) {
+                            inlineString.append(sheetParser.getElementText());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("rPh".equals(sheetParser.getLocalName())) {
+                    phoneticDepth--;
+                } else if ("c".equals(sheetParser.getLocalName())) {
+                    break;
+                }
+            }
+        }
+        return new StreamedCell(columnIndex, style == null ? 0 : Integer.parseInt(style), type, value, inlineString, formula);
+    }
+
+    private static int getColumnIndex(String cellReference) {
+        var columnIndex = 0;
+        for (var i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            columnIndex = columnIndex * 26 + (c - 'A' + 1);
+        }
+        return columnIndex - 1;
+    }
+
+    private void closeSheet() {
+        try {
+            if (sheetParser != null) {
+                sheetParser.close();
+            }
+            if (sheetStream != null) {
+                sheetStream.close();
+            }
+        } catch (XMLStreamException | IOException e) {
+            DataProcessor.logNode.warn("Could not close excel sheet stream: " + e.getMessage());
+        }
+        sheetParser = null;
+        sheetStream = null;
+        currentRow = null;
+        currentRowNo = -1;
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (Exception e) {
+            DataProcessor.logNode.warn("Could not close excel file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        closeSheet();
+        try {
+            if (sharedStrings != null) {
+                sharedStrings.close();
+            }
+        } finally {
+            sharedStrings = null;
+            if (opcPackage != null) {
+                opcPackage.revert();
+            }
+            opcPackage = null;
+        }
+    }
+
+    private class StreamedCell {
+        private final int columnIndex;
+        private final int styleIndex;
+        private final CellType cellType;
+        private final Object value;
+
+        // Resolves the cell value the same way DataReader.getValue does for the user model.
+        private StreamedCell(int columnIndex, int styleIndex, String type, String value, StringBuilder inlineString, boolean formula) {
+            this.columnIndex = columnIndex;
+            this.styleIndex = styleIndex;
+            if ("inlineStr".equals(type)) {
+                this.cellType = CellType.STRING;
+                this.value = inlineString == null ? value : inlineString.toString();
+                return;
+            }
+            if (value == null) {
+                this.cellType = CellType.BLANK;
+                this.value = null;
+                return;
+            }
+            switch (type == null ? "n" : type) {
+                case "s":
+                    this.cellType = CellType.STRING;
+                    this.value = sharedStrings.getString(Integer.parseInt(value));
+                    break;
+                case "str":
+                    this.cellType = formula ? CellType.FORMULA : CellType.STRING;
+                    this.value = value;
+                    break;
+                case "b":
+                    this.cellType = formula ? CellType.FORMULA : CellType.BOOLEAN;
+                    this.value = "1".equals(value) ? Boolean.TRUE : Boolean.FALSE;
+                    break;
+                case "e":
+                    this.cellType = formula ? CellType.FORMULA : CellType.ERROR;
+                    this.value = FormulaError.forString(value).getCode();
+                    break;
+                default:
+                    this.cellType = formula ? CellType.FORMULA : CellType.NUMERIC;
+                    this.value = Double.parseDouble(value);
+                    break;
+            }
+        }
+    }
+}
@@ -2,8 +2,13 @@ package dataimporter.implementation.utils;
 
 
 import dataimporter.implementation.enums.ExcelExtension;
+import dataimporter.implementation.enums.HeaderMatching;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 public class DataImporterUtils {
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\xa0\\u2007\\u202f]+");
 
     private DataImporterUtils() {
 
@@ -30,4 +35,18 @@ public class DataImporterUtils {
         name = name.replaceAll("[\\s\\xa0]+", " ").trim();
         return name.replaceAll("\\W+", "_");
     }
+
+    public static String normalizeHeaderName(String name, HeaderMatching headerMatching) {
+        switch (headerMatching) {
+            case WHITESPACE_INSENSITIVE:
+                return WHITESPACE.matcher(name).replaceAll(" ").trim();
+            case CASE_INSENSITIVE:
+                return WHITESPACE.matcher(name).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+            case SANITIZED:
+                return sanitizeName(WHITESPACE.matcher(name).replaceAll(" ")).toLowerCase(Locale.ROOT);
+            case EXACT:
+            default:
+                return name;
+        }
+    }
 }